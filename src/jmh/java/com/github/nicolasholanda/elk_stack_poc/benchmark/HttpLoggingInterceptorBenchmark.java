@@ -0,0 +1,68 @@
+package com.github.nicolasholanda.elk_stack_poc.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.github.nicolasholanda.elk_stack_poc.config.HttpLoggingInterceptor;
+import com.github.nicolasholanda.elk_stack_poc.logging.RouteRollup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link HttpLoggingInterceptor}: request id, MDC, latency timer and the access log
+ * call. Logging has no appenders attached, so this is what a request thread pays before the async
+ * appender takes over. {@link #mockExchangeOnly()} is the baseline for building the mock request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpLoggingInterceptorBenchmark {
+
+    private static final Object HANDLER = new Object();
+
+    private HttpLoggingInterceptor interceptor;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        interceptor = new HttpLoggingInterceptor(new SimpleMeterRegistry(), new RouteRollup());
+    }
+
+    @Benchmark
+    public void mockExchangeOnly(Blackhole blackhole) {
+        blackhole.consume(request());
+        blackhole.consume(response());
+    }
+
+    @Benchmark
+    public MockHttpServletResponse preHandleAndAfterCompletion() {
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = response();
+        interceptor.preHandle(request, response, HANDLER);
+        interceptor.afterCompletion(request, response, HANDLER, null);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/42");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/orders/{id}");
+        return request;
+    }
+
+    private static MockHttpServletResponse response() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(200);
+        return response;
+    }
+}
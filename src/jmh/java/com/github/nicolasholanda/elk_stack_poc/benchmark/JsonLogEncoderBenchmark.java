@@ -0,0 +1,90 @@
+package com.github.nicolasholanda.elk_stack_poc.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import com.github.nicolasholanda.elk_stack_poc.logging.LeanLogstashEncoder;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
+
+/**
+ * {@code JSON_FILE} encoding with {@link LogstashEncoder} and with {@link LeanLogstashEncoder}, both
+ * configured as in {@code logback-spring.xml}. The formatted message is computed in setup, as the async
+ * appender does before encoding, so only encoding is measured. Compare ns/op and
+ * {@code gc.alloc.rate.norm} (bytes/op, from {@code -prof gc}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonLogEncoderBenchmark {
+
+    private static final String FQCN = JsonLogEncoderBenchmark.class.getName();
+    private static final String CUSTOM_FIELDS =
+            "{\"environment\":\"poc\",\"application\":\"elk-stack-poc\",\"service_version\":\"0.0.1-SNAPSHOT\"}";
+
+    @Param({"logstash", "lean"})
+    public String encoderType;
+
+    private Encoder<ILoggingEvent> encoder;
+    private LoggingEvent accessLogEvent;
+    private LoggingEvent orderCreatedEvent;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        if (encoderType.equals("lean")) {
+            LeanLogstashEncoder lean = new LeanLogstashEncoder();
+            lean.setCustomFields(CUSTOM_FIELDS);
+            encoder = lean;
+        } else {
+            LogstashEncoder logstash = new LogstashEncoder();
+            logstash.setIncludeContext(true);
+            logstash.setIncludeMdc(true);
+            logstash.setCustomFields(CUSTOM_FIELDS);
+            encoder = logstash;
+        }
+        encoder.setContext(context);
+        encoder.start();
+        Logger interceptorLogger = context.getLogger("com.github.nicolasholanda.elk_stack_poc.config.HttpLoggingInterceptor");
+        Logger serviceLogger = context.getLogger("com.github.nicolasholanda.elk_stack_poc.service.OrderService");
+        accessLogEvent = event(interceptorLogger, "HTTP {} {} - Status: {} - Duration: {}ms - RequestID: {}",
+                v("http_method", "GET"), v("http_path", "/api/orders/42"), v("http_status", 200),
+                v("response_time", 3L), "REQ-1760000000000-42", v("http_route", "/api/orders/{id}"));
+        orderCreatedEvent = event(serviceLogger, "Order created successfully with id: {}, orderNumber: {}",
+                v("order_id", 42L), v("order_number", "ORD-0000A1B2C3D4E5F6"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        encoder.stop();
+    }
+
+    @Benchmark
+    public byte[] accessLogEvent() {
+        return encoder.encode(accessLogEvent);
+    }
+
+    @Benchmark
+    public byte[] orderCreatedEvent() {
+        return encoder.encode(orderCreatedEvent);
+    }
+
+    private static LoggingEvent event(Logger logger, String message, Object... arguments) {
+        LoggingEvent event = new LoggingEvent(FQCN, logger, Level.INFO, message, null, arguments);
+        event.setMDCPropertyMap(Map.of("request_id", "REQ-1760000000000-42", "http_route", "/api/orders/{id}"));
+        event.getFormattedMessage();
+        return event;
+    }
+}
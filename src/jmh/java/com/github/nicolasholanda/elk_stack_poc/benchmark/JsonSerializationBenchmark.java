@@ -0,0 +1,97 @@
+package com.github.nicolasholanda.elk_stack_poc.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the API payloads with an {@link ObjectMapper} configured like the one
+ * Spring Boot creates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"100"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+    private User user;
+    private List<Order> orders;
+    private List<User> users;
+    private byte[] orderJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        LocalDateTime now = LocalDateTime.now();
+        orders = new ArrayList<>(listSize);
+        users = new ArrayList<>(listSize);
+        for (long i = 1; i <= listSize; i++) {
+            orders.add(Order.builder()
+                    .id(i)
+                    .userId(i % 10 + 1)
+                    .orderNumber("ORD-0000A1B2C3D4" + String.format("%04X", i))
+                    .status(Order.OrderStatus.PENDING)
+                    .totalAmount(new BigDecimal("149.90"))
+                    .description("Order " + i + " with two items")
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            users.add(User.builder()
+                    .id(i)
+                    .name("User " + i)
+                    .email("user" + i + "@example.com")
+                    .phone("555-01" + i)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        order = orders.getFirst();
+        user = users.getFirst();
+        orderJson = objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] serializeUserList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public Order deserializeOrder() throws IOException {
+        return objectMapper.readValue(orderJson, Order.class);
+    }
+}
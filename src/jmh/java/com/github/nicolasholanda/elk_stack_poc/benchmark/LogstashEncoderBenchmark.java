@@ -0,0 +1,78 @@
+package com.github.nicolasholanda.elk_stack_poc.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
+
+/**
+ * Encodes the events the application logs most often. A new event is built per operation, because
+ * logback caches the formatted message on the event.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogstashEncoderBenchmark {
+
+    private static final String FQCN = LogstashEncoderBenchmark.class.getName();
+    private static final Map<String, String> MDC = Map.of("request_id", "REQ-1760000000000-42");
+
+    private LogstashEncoder encoder;
+    private Logger interceptorLogger;
+    private Logger serviceLogger;
+    private RuntimeException failure;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        interceptorLogger = context.getLogger("com.github.nicolasholanda.elk_stack_poc.config.HttpLoggingInterceptor");
+        serviceLogger = context.getLogger("com.github.nicolasholanda.elk_stack_poc.service.OrderService");
+        failure = new RuntimeException("Order not found with id: 42");
+    }
+
+    @TearDown
+    public void tearDown() {
+        encoder.stop();
+    }
+
+    @Benchmark
+    public byte[] accessLogEvent() {
+        return encoder.encode(event(interceptorLogger, Level.INFO,
+                "HTTP {} {} - Status: {} - Duration: {}ms - RequestID: {}", null,
+                v("http_method", "GET"), v("http_path", "/api/orders/42"), v("http_status", 200),
+                v("response_time", 3L), "REQ-1760000000000-42", v("http_route", "/api/orders/{id}")));
+    }
+
+    @Benchmark
+    public byte[] orderCreatedEvent() {
+        return encoder.encode(event(serviceLogger, Level.INFO,
+                "Order created successfully with id: {}, orderNumber: {}", null,
+                v("order_id", 42L), v("order_number", "ORD-0000A1B2C3D4E5F6")));
+    }
+
+    @Benchmark
+    public byte[] errorEventWithStackTrace() {
+        return encoder.encode(event(serviceLogger, Level.ERROR,
+                "Error creating order for user: {}", failure, v("user_id", 7L)));
+    }
+
+    private static LoggingEvent event(Logger logger, Level level, String message, Throwable throwable, Object... arguments) {
+        LoggingEvent event = new LoggingEvent(FQCN, logger, level, message, throwable, arguments);
+        event.setMDCPropertyMap(MDC);
+        return event;
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.nicolasholanda.elk_stack_poc.benchmark;
+
+import com.github.nicolasholanda.elk_stack_poc.service.SnowflakeOrderNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order number generation under contention, against the previous {@code UUID.randomUUID()} scheme.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class OrderNumberGeneratorBenchmark {
+
+    private SnowflakeOrderNumberGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new SnowflakeOrderNumberGenerator(1, Instant.parse("2025-01-01T00:00:00Z"), Clock.systemUTC());
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public String randomUuidFragment() {
+        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.nicolasholanda.elk_stack_poc.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nicolasholanda.elk_stack_poc.ElkStackPocApplication;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import com.github.nicolasholanda.elk_stack_poc.service.OrderService;
+import com.github.nicolasholanda.elk_stack_poc.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@code GET /api/orders/user/{userId}} does for a user with many orders: the query plus Jackson
+ * serialization of the response. Compares managed entities (the former path) with the record
+ * projection and with a sparse {@code fields=id,status,totalAmount} selection. Run with {@code -prof gc}
+ * to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderReadPathBenchmark {
+
+    @Param({"2000"})
+    public int ordersPerUser;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderRepository orderRepository;
+    private ObjectMapper objectMapper;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ElkStackPocApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh-read",
+                        "logging.level.root=WARN",
+                        "logging.level.com.github.nicolasholanda.elk_stack_poc=WARN")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        userId = context.getBean(UserService.class)
+                .createUser(User.builder().name("Benchmark User").email("jmh-read@example.com").build())
+                .getId();
+        List<Order> orders = new ArrayList<>(ordersPerUser);
+        for (int i = 0; i < ordersPerUser; i++) {
+            orders.add(Order.builder()
+                    .userId(userId)
+                    .status(Order.OrderStatus.PENDING)
+                    .totalAmount(new BigDecimal("49.90"))
+                    .description("JMH order with a description that the client never reads " + i)
+                    .build());
+        }
+        orderService.createOrders(orders);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] managedEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderRepository.findByUserId(userId));
+    }
+
+    @Benchmark
+    public byte[] recordProjection() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderService.getOrdersByUserId(userId));
+    }
+
+    @Benchmark
+    public byte[] sparseFields() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderService.getOrdersByUserId(userId, "id,status,totalAmount"));
+    }
+}
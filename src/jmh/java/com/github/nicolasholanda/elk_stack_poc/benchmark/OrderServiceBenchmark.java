@@ -0,0 +1,92 @@
+package com.github.nicolasholanda.elk_stack_poc.benchmark;
+
+import com.github.nicolasholanda.elk_stack_poc.ElkStackPocApplication;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.service.OrderService;
+import com.github.nicolasholanda.elk_stack_poc.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderService} create and read paths against the in-memory H2 database, with the order cache
+ * on and off. The full application context is started once per fork, without the web server.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderServiceBenchmark {
+
+    private static final int SEEDED_ORDERS = 1000;
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Long userId;
+    private long[] orderIds;
+    private String[] orderNumbers;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ElkStackPocApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh",
+                        "app.cache.orders.enabled=" + cacheEnabled,
+                        "logging.level.root=WARN",
+                        "logging.level.com.github.nicolasholanda.elk_stack_poc=WARN")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        userId = context.getBean(UserService.class)
+                .createUser(User.builder().name("Benchmark User").email("jmh@example.com").build())
+                .getId();
+        orderIds = new long[SEEDED_ORDERS];
+        orderNumbers = new String[SEEDED_ORDERS];
+        for (int i = 0; i < SEEDED_ORDERS; i++) {
+            Order order = orderService.createOrder(newOrder());
+            orderIds[i] = order.getId();
+            orderNumbers[i] = order.getOrderNumber();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(newOrder());
+    }
+
+    @Benchmark
+    public Optional<Order> getOrderById() {
+        return orderService.getOrderById(orderIds[ThreadLocalRandom.current().nextInt(SEEDED_ORDERS)]);
+    }
+
+    @Benchmark
+    public Optional<Order> getOrderByOrderNumber() {
+        return orderService.getOrderByOrderNumber(orderNumbers[ThreadLocalRandom.current().nextInt(SEEDED_ORDERS)]);
+    }
+
+    private Order newOrder() {
+        return Order.builder()
+                .userId(userId)
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("49.90"))
+                .description("JMH order")
+                .build();
+    }
+}
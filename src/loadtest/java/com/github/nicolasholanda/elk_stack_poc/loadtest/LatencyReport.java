@@ -0,0 +1,153 @@
+package com.github.nicolasholanda.elk_stack_poc.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies per operation in microsecond HdrHistograms. Response time runs from the moment the request
+ * was scheduled to be sent, so time spent waiting behind a slow server or a stalled generator is
+ * counted (corrected for coordinated omission). Service time runs from the actual send and is what a
+ * closed-loop tool such as k6 reports.
+ */
+class LatencyReport {
+
+    static final String ALL = "all";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Stats> operations = new ConcurrentHashMap<>();
+
+    void record(String operation, long responseNanos, long serviceNanos, boolean success) {
+        for (String name : new String[]{operation, ALL}) {
+            Stats stats = operations.computeIfAbsent(name, ignored -> new Stats());
+            stats.responseTime.recordValue(Math.max(1, responseNanos / 1000));
+            stats.serviceTime.recordValue(Math.max(1, serviceNanos / 1000));
+            if (!success) {
+                stats.errors.increment();
+            }
+        }
+    }
+
+    void dropped(String operation) {
+        for (String name : new String[]{operation, ALL}) {
+            operations.computeIfAbsent(name, ignored -> new Stats()).dropped.increment();
+        }
+    }
+
+    ObjectNode toJson(ObjectMapper objectMapper, LoadTestOptions options, double achievedRate) {
+        ObjectNode summary = objectMapper.createObjectNode();
+        summary.put("targetRate", options.rate());
+        summary.put("achievedRate", Math.round(achievedRate * 10) / 10.0);
+        summary.put("durationSeconds", options.duration().toMillis() / 1000.0);
+        ObjectNode operationsNode = summary.putObject("operations");
+        new TreeMap<>(operations).forEach((name, stats) -> {
+            ObjectNode node = operationsNode.putObject(name);
+            node.put("count", stats.responseTime.getTotalCount());
+            node.put("errors", stats.errors.sum());
+            node.put("dropped", stats.dropped.sum());
+            node.set("responseTimeMs", percentiles(objectMapper, stats.responseTime));
+            node.set("serviceTimeMs", percentiles(objectMapper, stats.serviceTime));
+        });
+        return summary;
+    }
+
+    void writeTo(Path directory, ObjectMapper objectMapper, LoadTestOptions options, double achievedRate) throws IOException {
+        Files.createDirectories(directory);
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(directory.resolve("summary.json").toFile(), toJson(objectMapper, options, achievedRate));
+        for (Map.Entry<String, Stats> entry : operations.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().responseTime.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    static void print(JsonNode summary, PrintStream out) {
+        out.printf("Target %s req/s, achieved %s req/s over %ss%n", summary.get("targetRate"),
+                summary.get("achievedRate"), summary.get("durationSeconds"));
+        out.printf("%-22s %8s %7s %9s %9s %9s %9s %9s %12s%n", "operation", "count", "errors",
+                "p50", "p90", "p99", "p99.9", "max", "service p99");
+        summary.get("operations").properties().forEach(entry -> {
+            JsonNode node = entry.getValue();
+            JsonNode response = node.get("responseTimeMs");
+            out.printf("%-22s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f %12.2f%n", entry.getKey(),
+                    node.get("count").asLong(), node.get("errors").asLong() + node.get("dropped").asLong(),
+                    response.get("p50").asDouble(), response.get("p90").asDouble(), response.get("p99").asDouble(),
+                    response.get("p99.9").asDouble(), response.get("max").asDouble(),
+                    node.get("serviceTimeMs").get("p99").asDouble());
+        });
+        out.println("Response time in ms from the scheduled send time; service time from the actual send.");
+    }
+
+    /**
+     * Threshold and baseline violations of a summary; empty when it passes.
+     */
+    static List<String> check(JsonNode summary, JsonNode baseline, LoadTestOptions options) {
+        List<String> failures = new ArrayList<>();
+        JsonNode all = summary.path("operations").path(ALL);
+        long count = all.path("count").asLong() + all.path("dropped").asLong();
+        if (count == 0) {
+            failures.add("no requests completed");
+            return failures;
+        }
+        double errorRate = (all.path("errors").asLong() + all.path("dropped").asLong()) / (double) count;
+        if (errorRate > options.maxErrorRate()) {
+            failures.add("error rate %.3f above %.3f".formatted(errorRate, options.maxErrorRate()));
+        }
+        double p99 = all.path("responseTimeMs").path("p99").asDouble();
+        if (options.maxP99Millis() != null && p99 > options.maxP99Millis()) {
+            failures.add("p99 %.2fms above %.2fms".formatted(p99, options.maxP99Millis()));
+        }
+        if (baseline != null) {
+            summary.path("operations").properties().forEach(entry -> {
+                JsonNode before = baseline.path("operations").path(entry.getKey()).path("responseTimeMs").path("p99");
+                if (before.isMissingNode()) {
+                    return;
+                }
+                double now = entry.getValue().path("responseTimeMs").path("p99").asDouble();
+                double limit = before.asDouble() * (1 + options.maxP99Regression()) + options.p99SlackMillis();
+                if (now > limit) {
+                    failures.add("%s p99 %.2fms regressed from %.2fms (limit %.2fms)"
+                            .formatted(entry.getKey(), now, before.asDouble(), limit));
+                }
+            });
+        }
+        return failures;
+    }
+
+    private static ObjectNode percentiles(ObjectMapper objectMapper, Histogram histogram) {
+        ObjectNode node = objectMapper.createObjectNode();
+        for (double percentile : PERCENTILES) {
+            node.put(percentile == Math.rint(percentile) ? "p" + (int) percentile : "p" + percentile,
+                    millis(histogram.getValueAtPercentile(percentile)));
+        }
+        node.put("max", millis(histogram.getMaxValue()));
+        node.put("mean", Math.round(histogram.getMean()) / 1000.0);
+        return node;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class Stats {
+
+        final Histogram responseTime = new ConcurrentHistogram(3);
+        final Histogram serviceTime = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+    }
+}
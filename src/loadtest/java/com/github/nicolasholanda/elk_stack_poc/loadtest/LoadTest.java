@@ -0,0 +1,138 @@
+package com.github.nicolasholanda.elk_stack_poc.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the order and user API. Requests are scheduled at a fixed arrival rate
+ * and each one is sent on its own virtual thread, so a slow response never delays the next request the
+ * way a closed-loop virtual user does. Run with {@code mvn -Ploadtest verify -DskipTests}, which starts
+ * the application, runs this class and fails the build on threshold or baseline violations.
+ * <p>
+ * Writes {@code summary.json} (percentiles per operation) and one {@code .hgrm} percentile distribution
+ * per operation to {@code --out}. A previous {@code summary.json} can be passed as {@code --baseline}.
+ */
+public class LoadTest {
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    LoadTest(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        LoadTest loadTest = new LoadTest(options);
+        if (!options.checkOnly()) {
+            loadTest.run();
+        }
+        System.exit(loadTest.check() ? 0 : 1);
+    }
+
+    void run() throws IOException, InterruptedException {
+        Scenario scenario = new Scenario(options.baseUrl(), objectMapper);
+        seed(scenario);
+        LatencyReport report = new LatencyReport();
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder completed = new LongAdder();
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        System.out.printf("Sending %d req/s to %s: %ss warmup, %ss measured%n", options.rate(), options.baseUrl(),
+                options.warmup().toSeconds(), options.duration().toSeconds());
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + i * interval;
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Scenario.Call call = scenario.next();
+                boolean measured = intended >= measureFrom;
+                if (inFlight.incrementAndGet() > options.maxInFlight()) {
+                    inFlight.decrementAndGet();
+                    if (measured) {
+                        report.dropped(call.operation().metricName());
+                    }
+                    continue;
+                }
+                senders.execute(() -> {
+                    long sent = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = scenario.accept(call, client.send(call.request(), HttpResponse.BodyHandlers.ofByteArray()));
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    long done = System.nanoTime();
+                    inFlight.decrementAndGet();
+                    if (measured) {
+                        report.record(call.operation().metricName(), done - intended, done - sent, success);
+                        completed.increment();
+                    }
+                });
+            }
+        }
+        double achievedRate = completed.sum() / (options.duration().toNanos() / 1e9);
+        report.writeTo(options.outputDirectory(), objectMapper, options, achievedRate);
+    }
+
+    boolean check() throws IOException {
+        Path summaryFile = options.outputDirectory().resolve("summary.json");
+        if (!Files.exists(summaryFile)) {
+            System.err.println("No load test results in " + summaryFile);
+            return false;
+        }
+        JsonNode summary = objectMapper.readTree(summaryFile.toFile());
+        LatencyReport.print(summary, System.out);
+        JsonNode baseline = options.baseline() != null && Files.exists(options.baseline())
+                ? objectMapper.readTree(options.baseline().toFile())
+                : null;
+        List<String> failures = LatencyReport.check(summary, baseline, options);
+        failures.forEach(failure -> System.err.println("FAILED: " + failure));
+        return failures.isEmpty();
+    }
+
+    /**
+     * Creates the users every other operation needs before the clock starts.
+     */
+    private void seed(Scenario scenario) throws IOException, InterruptedException {
+        for (int i = 0; i < options.seedUsers(); i++) {
+            Scenario.Call call = scenario.createUser();
+            if (!scenario.accept(call, client.send(call.request(), HttpResponse.BodyHandlers.ofByteArray()))) {
+                throw new IllegalStateException("Could not create seed users at " + options.baseUrl());
+            }
+        }
+    }
+}
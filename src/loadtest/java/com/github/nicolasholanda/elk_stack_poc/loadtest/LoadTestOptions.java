@@ -0,0 +1,74 @@
+package com.github.nicolasholanda.elk_stack_poc.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Command-line options of {@link LoadTest}. Durations use the {@link Duration} ISO format or a plain
+ * number of seconds ({@code 60s} also works).
+ */
+record LoadTestOptions(URI baseUrl, int rate, Duration duration, Duration warmup, int seedUsers, int maxInFlight,
+                       Path outputDirectory, boolean checkOnly, Double maxP99Millis, double maxErrorRate,
+                       Path baseline, double maxP99Regression, double p99SlackMillis) {
+
+    static final String USAGE = """
+            Usage: LoadTest [--base-url http://localhost:8080] [--rate 200] [--duration 60s] [--warmup 10s]
+                            [--seed-users 50] [--max-in-flight 5000] [--out target/loadtest] [--check-only]
+                            [--max-p99-ms <ms>] [--max-error-rate 0.1]
+                            [--baseline <summary.json>] [--max-p99-regression 0.2] [--p99-slack-ms 1]""";
+
+    static LoadTestOptions parse(String... args) {
+        URI baseUrl = URI.create("http://localhost:8080");
+        int rate = 200;
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+        int seedUsers = 50;
+        int maxInFlight = 5000;
+        Path output = Path.of("target", "loadtest");
+        boolean checkOnly = false;
+        Double maxP99 = null;
+        double maxErrorRate = 0.1;
+        Path baseline = null;
+        double maxRegression = 0.2;
+        double slack = 1;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--check-only")) {
+                checkOnly = true;
+                continue;
+            }
+            if (++i >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[i];
+            switch (option) {
+                case "--base-url" -> baseUrl = URI.create(value.replaceAll("/+$", ""));
+                case "--rate" -> rate = Integer.parseInt(value);
+                case "--duration" -> duration = duration(value);
+                case "--warmup" -> warmup = duration(value);
+                case "--seed-users" -> seedUsers = Integer.parseInt(value);
+                case "--max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "--out" -> output = Path.of(value);
+                case "--max-p99-ms" -> maxP99 = Double.parseDouble(value);
+                case "--max-error-rate" -> maxErrorRate = Double.parseDouble(value);
+                case "--baseline" -> baseline = Path.of(value);
+                case "--max-p99-regression" -> maxRegression = Double.parseDouble(value);
+                case "--p99-slack-ms" -> slack = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        if (rate < 1 || seedUsers < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("--rate, --seed-users and --max-in-flight must be positive");
+        }
+        return new LoadTestOptions(baseUrl, rate, duration, warmup, seedUsers, maxInFlight, output, checkOnly,
+                maxP99, maxErrorRate, baseline, maxRegression, slack);
+    }
+
+    private static Duration duration(String value) {
+        if (value.startsWith("P") || value.startsWith("p")) {
+            return Duration.parse(value);
+        }
+        return Duration.ofMillis(Math.round(Double.parseDouble(value.replaceAll("s$", "")) * 1000));
+    }
+}
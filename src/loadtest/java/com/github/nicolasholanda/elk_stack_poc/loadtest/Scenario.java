@@ -0,0 +1,179 @@
+package com.github.nicolasholanda.elk_stack_poc.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The requests of {@code k6-load-test.js}, weighted by how often one k6 iteration sends them. Created
+ * users and orders are remembered, so lookups and updates hit existing rows. Status updates confirm
+ * orders that are still {@code PENDING}, so they are legal transitions.
+ */
+class Scenario {
+
+    enum Operation {
+        CREATE_USER(3), LIST_USERS(2), GET_USER(1), GET_USER_BY_EMAIL(1), UPDATE_USER(1),
+        CREATE_ORDER(2), LIST_ORDERS(2), GET_ORDERS_BY_USER(1), GET_ORDER_BY_NUMBER(1), UPDATE_ORDER_STATUS(1);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        String metricName() {
+            return name().toLowerCase();
+        }
+    }
+
+    record Call(Operation operation, HttpRequest request) {
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUrl;
+    private final ObjectMapper objectMapper;
+    private final Operation[] schedule;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Pool<JsonNode> users = new Pool<>();
+    private final Pool<JsonNode> orders = new Pool<>();
+    private final Queue<Long> pendingOrders = new ConcurrentLinkedQueue<>();
+
+    Scenario(URI baseUrl, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        List<Operation> weighted = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            for (int i = 0; i < operation.weight; i++) {
+                weighted.add(operation);
+            }
+        }
+        this.schedule = weighted.toArray(Operation[]::new);
+    }
+
+    Call next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = schedule[random.nextInt(schedule.length)];
+        JsonNode user = users.random();
+        if (user == null) {
+            return createUser();
+        }
+        return switch (operation) {
+            case CREATE_USER -> createUser();
+            case LIST_USERS -> call(operation, get("/api/users"));
+            case GET_USER -> call(operation, get("/api/users/" + user.get("id").asLong()));
+            case GET_USER_BY_EMAIL -> call(operation,
+                    get("/api/users/email/" + URLEncoder.encode(user.get("email").asText(), StandardCharsets.UTF_8)));
+            case UPDATE_USER -> call(operation, json("/api/users/" + user.get("id").asLong(), "PUT", Map.of(
+                    "name", "Updated User " + sequence.incrementAndGet(),
+                    "email", user.get("email").asText(),
+                    "phone", "+55 (11) 98765-4321")));
+            case CREATE_ORDER -> call(operation, json("/api/orders", "POST", Map.of(
+                    "userId", user.get("id").asLong(),
+                    "status", "PENDING",
+                    "totalAmount", BigDecimal.valueOf(random.nextInt(1, 10_000)).movePointLeft(2).setScale(2, RoundingMode.UNNECESSARY),
+                    "description", "Load test order " + sequence.incrementAndGet())));
+            case LIST_ORDERS -> call(operation, get("/api/orders"));
+            case GET_ORDERS_BY_USER -> call(operation, get("/api/orders/user/" + user.get("id").asLong()));
+            case GET_ORDER_BY_NUMBER -> {
+                JsonNode order = orders.random();
+                yield order == null
+                        ? call(Operation.LIST_ORDERS, get("/api/orders"))
+                        : call(operation, get("/api/orders/number/" + order.get("orderNumber").asText()));
+            }
+            case UPDATE_ORDER_STATUS -> {
+                Long orderId = pendingOrders.poll();
+                yield orderId == null
+                        ? call(Operation.LIST_ORDERS, get("/api/orders"))
+                        : call(operation, HttpRequest.newBuilder(uri("/api/orders/" + orderId + "/status?status=CONFIRMED"))
+                                .timeout(TIMEOUT)
+                                .PUT(HttpRequest.BodyPublishers.noBody()));
+            }
+        };
+    }
+
+    Call createUser() {
+        long n = sequence.incrementAndGet();
+        return call(Operation.CREATE_USER, json("/api/users", "POST", Map.of(
+                "name", "Load Test User " + n,
+                "email", "loadtest." + runId + "." + n + "@example.com",
+                "phone", "+5511999990000")));
+    }
+
+    /**
+     * Whether the response is the expected one; remembers created users and orders.
+     */
+    boolean accept(Call call, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status / 100 != 2) {
+            return false;
+        }
+        try {
+            switch (call.operation()) {
+                case CREATE_USER -> users.add(objectMapper.readTree(response.body()));
+                case CREATE_ORDER -> {
+                    JsonNode order = objectMapper.readTree(response.body());
+                    orders.add(order);
+                    pendingOrders.add(order.get("id").asLong());
+                }
+                default -> {
+                }
+            }
+        } catch (Exception e) {
+            return false;
+        }
+        return true;
+    }
+
+    private Call call(Operation operation, HttpRequest.Builder request) {
+        return new Call(operation, request.build());
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(TIMEOUT).GET();
+    }
+
+    private HttpRequest.Builder json(String path, String method, Map<String, Object> body) {
+        try {
+            return HttpRequest.newBuilder(uri(path))
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static final class Pool<T> {
+
+        private final List<T> items = new ArrayList<>();
+
+        synchronized void add(T item) {
+            items.add(item);
+        }
+
+        synchronized T random() {
+            return items.isEmpty() ? null : items.get(ThreadLocalRandom.current().nextInt(items.size()));
+        }
+    }
+}
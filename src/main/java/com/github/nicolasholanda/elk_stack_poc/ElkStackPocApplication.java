@@ -1,12 +1,21 @@
 package com.github.nicolasholanda.elk_stack_poc;
 
+import com.github.nicolasholanda.elk_stack_poc.logging.LogBackfill;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+import java.util.Arrays;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class ElkStackPocApplication {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && args[0].equals("backfill")) {
+			LogBackfill.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
 		SpringApplication.run(ElkStackPocApplication.class, args);
 	}
 
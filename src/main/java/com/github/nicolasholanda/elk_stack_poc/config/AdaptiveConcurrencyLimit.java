@@ -0,0 +1,132 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows observed latency, after the gradient limit of Netflix's
+ * concurrency-limits. Completed requests are sampled in windows of {@code windowSize}; the window's
+ * average latency is compared with a long-term average over {@code longWindow} windows. While the short
+ * average stays within {@code rttTolerance} of the long one the limit grows by about its square root per
+ * window, once it exceeds it the limit shrinks in proportion (at most halving), and a window with a failed
+ * request (5xx) backs off by {@code backoffRatio}. Windows in which fewer than half of the permits were used
+ * do not grow the limit, so a lightly loaded instance does not drift to the maximum.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final int windowSize;
+    private final int longWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowFailed;
+
+    public AdaptiveConcurrencyLimit(ConcurrencyLimitProperties.Limit limits, ConcurrencyLimitProperties properties) {
+        if (limits.minLimit() < 1 || limits.minLimit() > limits.maxLimit()) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = limits.minLimit();
+        this.maxLimit = limits.maxLimit();
+        this.rttTolerance = properties.rttTolerance();
+        this.smoothing = properties.smoothing();
+        this.backoffRatio = properties.backoffRatio();
+        this.windowSize = Math.max(1, properties.windowSize());
+        this.longWindow = Math.max(1, properties.longWindow());
+        this.estimatedLimit = Math.clamp(limits.initialLimit(), minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Takes a permit unless the limit is reached; a rejection is counted.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Returns a permit and samples the request's latency.
+     */
+    public void release(long rttNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        sample(rttNanos, failed, inFlightBefore);
+    }
+
+    /**
+     * Returns a permit without a sample, for requests whose duration says nothing about load, such as streams.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private synchronized void sample(long rttNanos, boolean failed, int inFlightBefore) {
+        windowRttNanos += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBefore);
+        windowFailed |= failed;
+        if (windowSamples < windowSize) {
+            return;
+        }
+        double shortRttNanos = (double) windowRttNanos / windowSamples;
+        boolean appLimited = windowMaxInFlight < estimatedLimit / 2;
+        boolean backOff = windowFailed;
+        windowRttNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowFailed = false;
+
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+        } else {
+            longRttNanos += (shortRttNanos - longRttNanos) / longWindow;
+            // Latency dropped well below the baseline (load went away): let the baseline catch up quickly
+            if (longRttNanos > 2 * shortRttNanos) {
+                longRttNanos *= 0.95;
+            }
+        }
+
+        double next;
+        if (backOff) {
+            next = estimatedLimit * backoffRatio;
+        } else if (appLimited) {
+            return;
+        } else {
+            double gradient = Math.clamp(rttTolerance * longRttNanos / shortRttNanos, 0.5, 1.0);
+            double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            next = estimatedLimit * (1 - smoothing) + target * smoothing;
+        }
+        estimatedLimit = Math.clamp(next, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+}
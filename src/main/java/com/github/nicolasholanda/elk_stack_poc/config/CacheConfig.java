@@ -0,0 +1,48 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Bounded entity caches used by the services for read-through lookups. A disabled entity gets
+ * {@link NoOpCache}s, so every lookup falls through to the database. Hit/miss/eviction statistics
+ * are published by Spring Boot as {@code cache.*} metrics tagged with the cache name.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String USERS_BY_EMAIL = "users-by-email";
+    public static final String ORDERS = "orders";
+    public static final String ORDERS_BY_NUMBER = "orders-by-number";
+
+    @Bean
+    public CacheManager cacheManager(EntityCacheProperties properties) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                cache(USERS, properties.users()),
+                cache(USERS_BY_EMAIL, properties.users()),
+                cache(ORDERS, properties.orders()),
+                cache(ORDERS_BY_NUMBER, properties.orders())));
+        return cacheManager;
+    }
+
+    private static Cache cache(String name, EntityCacheProperties.Spec spec) {
+        if (!spec.enabled()) {
+            return new NoOpCache(name);
+        }
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(spec.maximumSize())
+                .expireAfterWrite(spec.ttl())
+                .recordStats()
+                .build(), false);
+    }
+}
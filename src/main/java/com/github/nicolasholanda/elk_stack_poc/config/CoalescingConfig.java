@@ -0,0 +1,83 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderView;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.service.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Single-flight coalescing for the hot lookups by key. Per flight, {@code coalescing.calls} counts loads
+ * that ran ({@code result=executed}) and callers that shared one ({@code result=coalesced}),
+ * {@code coalescing.timeouts} the waiters that gave up and ran their own load, and {@code coalescing.ratio}
+ * is coalesced callers per executed load.
+ */
+@Configuration
+public class CoalescingConfig {
+
+    public static final String USER_BY_ID = "user-by-id";
+    public static final String USER_BY_EMAIL = "user-by-email";
+    public static final String ORDERS_BY_USER = "orders-by-user";
+    public static final String ORDER_BY_ID = "order-by-id";
+    public static final String ORDER_BY_NUMBER = "order-by-number";
+
+    @Bean
+    public SingleFlight<Long, Optional<User>> userByIdFlight(CoalescingProperties properties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        return bind(new SingleFlight<>(USER_BY_ID, properties.enabled(), properties.timeout()), meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<String, Optional<User>> userByEmailFlight(CoalescingProperties properties,
+                                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        return bind(new SingleFlight<>(USER_BY_EMAIL, properties.enabled(), properties.timeout()), meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<Long, List<OrderView>> ordersByUserFlight(CoalescingProperties properties,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return bind(new SingleFlight<>(ORDERS_BY_USER, properties.enabled(), properties.timeout()), meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<Long, Optional<Order>> orderByIdFlight(CoalescingProperties properties,
+                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return bind(new SingleFlight<>(ORDER_BY_ID, properties.enabled(), properties.timeout()), meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<String, Optional<Order>> orderByNumberFlight(CoalescingProperties properties,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return bind(new SingleFlight<>(ORDER_BY_NUMBER, properties.enabled(), properties.timeout()), meterRegistry);
+    }
+
+    private static <K, V> SingleFlight<K, V> bind(SingleFlight<K, V> flight, ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("coalescing.calls", flight, SingleFlight::getExecuted)
+                    .tag("flight", flight.getName())
+                    .tag("result", "executed")
+                    .register(registry);
+            FunctionCounter.builder("coalescing.calls", flight, SingleFlight::getCoalesced)
+                    .tag("flight", flight.getName())
+                    .tag("result", "coalesced")
+                    .register(registry);
+            FunctionCounter.builder("coalescing.timeouts", flight, SingleFlight::getTimedOut)
+                    .tag("flight", flight.getName())
+                    .register(registry);
+            Gauge.builder("coalescing.ratio", flight,
+                            f -> f.getExecuted() == 0 ? 0 : (double) f.getCoalesced() / f.getExecuted())
+                    .tag("flight", flight.getName())
+                    .description("Callers served by another caller's load, per executed load")
+                    .register(registry);
+        });
+        return flight;
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Sheds load before it queues: reads (GET, HEAD, OPTIONS) and writes each get an
+ * {@link AdaptiveConcurrencyLimit}, so list scans cannot take the permits order creation needs. A request
+ * over its limit is answered straight away with {@code reject-status} and {@code Retry-After}, without an
+ * access log line or request timer; it shows in {@code api.concurrency.rejected}.
+ * <p>
+ * Streaming responses give their permit back when the handler returns and the stream continues on
+ * another thread, and are not sampled.
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+    private static final String START_TIME = ConcurrencyLimitInterceptor.class.getName() + ".startTime";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ConcurrencyLimitProperties properties;
+    private final AdaptiveConcurrencyLimit reads;
+    private final AdaptiveConcurrencyLimit writes;
+    private final String retryAfter;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.reads = new AdaptiveConcurrencyLimit(properties.reads(), properties);
+        this.writes = new AdaptiveConcurrencyLimit(properties.writes(), properties);
+        this.retryAfter = Long.toString(Math.max(1, properties.retryAfter().toSeconds()));
+        bindMetrics(meterRegistry, "read", reads);
+        bindMetrics(meterRegistry, "write", writes);
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        // An async dispatch re-enters preHandle; the original dispatch already held (and returned) a permit
+        if (!properties.enabled() || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        AdaptiveConcurrencyLimit limit = READ_METHODS.contains(request.getMethod()) ? reads : writes;
+        if (!limit.tryAcquire()) {
+            log.debug("Rejected {} {} over concurrency limit {}", request.getMethod(), request.getRequestURI(), limit.getLimit());
+            response.setStatus(properties.rejectStatus());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return false;
+        }
+        request.setAttribute(PERMIT, limit);
+        request.setAttribute(START_TIME, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        if (request.getAttribute(PERMIT) instanceof AdaptiveConcurrencyLimit limit) {
+            request.removeAttribute(PERMIT);
+            limit.release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof AdaptiveConcurrencyLimit limit) {
+            request.removeAttribute(PERMIT);
+            long durationNanos = System.nanoTime() - (long) request.getAttribute(START_TIME);
+            limit.release(durationNanos, ex != null || response.getStatus() >= 500);
+        }
+    }
+
+    AdaptiveConcurrencyLimit reads() {
+        return reads;
+    }
+
+    AdaptiveConcurrencyLimit writes() {
+        return writes;
+    }
+
+    private static void bindMetrics(MeterRegistry registry, String kind, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("api.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("kind", kind)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder("api.concurrency.in_flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("kind", kind)
+                .description("Requests holding a concurrency permit")
+                .register(registry);
+        FunctionCounter.builder("api.concurrency.rejected", limit, AdaptiveConcurrencyLimit::getRejected)
+                .tag("kind", kind)
+                .description("Requests rejected over the concurrency limit")
+                .register(registry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Limit reads,
+        @DefaultValue Limit writes,
+        @DefaultValue("1.5") double rttTolerance,
+        @DefaultValue("0.2") double smoothing,
+        @DefaultValue("0.9") double backoffRatio,
+        @DefaultValue("50") int windowSize,
+        @DefaultValue("20") int longWindow,
+        @DefaultValue("503") int rejectStatus,
+        @DefaultValue("1s") Duration retryAfter) {
+
+    public record Limit(
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("4") int minLimit,
+            @DefaultValue("200") int maxLimit) {
+    }
+}
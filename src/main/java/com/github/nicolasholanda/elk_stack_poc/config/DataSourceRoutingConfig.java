@@ -0,0 +1,91 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
+
+/**
+ * Primary/replica routing, enabled with {@code app.datasource.replica.enabled}. The primary pool is still
+ * configured through {@code spring.datasource}; JPA, Flyway and everything else get the routing data source.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 DataSourceProperties primaryProperties,
+                                                                 ReplicaDataSourceProperties replicaProperties,
+                                                                 ObjectProvider<FlywayProperties> flywayProperties,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica");
+        config.setJdbcUrl(replicaProperties.url());
+        String username = replicaProperties.username() != null ? replicaProperties.username() : primaryProperties.determineUsername();
+        String password = replicaProperties.password() != null ? replicaProperties.password() : primaryProperties.determinePassword();
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(replicaProperties.maximumPoolSize());
+        config.setConnectionTimeout(replicaProperties.connectionTimeout().toMillis());
+        config.setReadOnly(true);
+        // Start even if the replica is down; the health check picks it up once it is reachable
+        config.setInitializationFailTimeout(-1);
+        meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+        if (replicaProperties.migrate()) {
+            FlywayProperties flyway = flywayProperties.getIfAvailable(FlywayProperties::new);
+            log.info("Migrating replica schema at {}", v("url", replicaProperties.url()));
+            Flyway.configure()
+                    .dataSource(replicaProperties.url(), username, password)
+                    .locations(flyway.getLocations().toArray(String[]::new))
+                    .load()
+                    .migrate();
+        }
+
+        HikariDataSource replica = new HikariDataSource(config);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replica,
+                replicaProperties.healthCheckInterval());
+        meterRegistry.ifAvailable(registry -> Gauge.builder("datasource.replica.available", routing,
+                        r -> r.isReplicaAvailable() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(registry));
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaDataSourceProperties replicaProperties) {
+        return new ReadYourWritesFilter(replicaProperties.readYourWritesWindow());
+    }
+}
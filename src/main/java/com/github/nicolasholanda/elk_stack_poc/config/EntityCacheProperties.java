@@ -0,0 +1,18 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.cache")
+public record EntityCacheProperties(
+        @DefaultValue Spec users,
+        @DefaultValue Spec orders) {
+
+    public record Spec(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("10m") Duration ttl) {
+    }
+}
@@ -1,53 +1,110 @@
 package com.github.nicolasholanda.elk_stack_poc.config;
 
+import com.github.nicolasholanda.elk_stack_poc.logging.RouteRollup;
+import com.github.nicolasholanda.elk_stack_poc.logging.SamplingTurboFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
+
 @Slf4j
 @Component
-public class HttpLoggingInterceptor implements HandlerInterceptor {
+@RequiredArgsConstructor
+public class HttpLoggingInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String MDC_REQUEST_ID = "request_id";
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
 
     private static final String START_TIME = "startTime";
     private static final String REQUEST_ID = "requestId";
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+    private static final String ACCESS_LOG_MESSAGE = "HTTP {} {} - Status: {} - Duration: {}ms - RequestID: {}";
+
+    private final MeterRegistry meterRegistry;
+    private final RouteRollup routeRollup;
 
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
-        request.setAttribute(START_TIME, System.currentTimeMillis());
-        request.setAttribute(REQUEST_ID, generateRequestId());
+        // An async dispatch re-enters preHandle; keep the id and start time of the original request
+        if (request.getAttribute(REQUEST_ID) == null) {
+            request.setAttribute(START_TIME, System.nanoTime());
+            request.setAttribute(REQUEST_ID, generateRequestId());
+            response.setHeader(REQUEST_ID_HEADER, (String) request.getAttribute(REQUEST_ID));
+        }
+        MDC.put(MDC_REQUEST_ID, (String) request.getAttribute(REQUEST_ID));
+        MDC.put(SamplingTurboFilter.MDC_ROUTE, route(request));
         return true;
     }
 
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        MDC.remove(MDC_REQUEST_ID);
+        MDC.remove(SamplingTurboFilter.MDC_ROUTE);
+    }
+
     @Override
     public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler, Exception ex) {
         long startTime = (long) request.getAttribute(START_TIME);
-        long duration = System.currentTimeMillis() - startTime;
+        long durationNanos = System.nanoTime() - startTime;
+        long duration = TimeUnit.NANOSECONDS.toMillis(durationNanos);
         String requestId = (String) request.getAttribute(REQUEST_ID);
         String method = request.getMethod();
         String uri = request.getRequestURI();
+        String route = route(request);
         int status = response.getStatus();
 
-        // Log HTTP request with status code and duration
-        if (status >= 500) {
-            log.error("HTTP {} {} - Status: {} - Duration: {}ms - RequestID: {}",
-                method, uri, status, duration, requestId);
-        } else if (status >= 400) {
-            log.warn("HTTP {} {} - Status: {} - Duration: {}ms - RequestID: {}",
-                method, uri, status, duration, requestId);
-        } else {
-            log.info("HTTP {} {} - Status: {} - Duration: {}ms - RequestID: {}",
-                method, uri, status, duration, requestId);
-        }
+        recordLatency(route, method, status, durationNanos);
+        routeRollup.record(route, method, status, durationNanos);
 
-        if (ex != null) {
-            log.error("Request failed with exception - RequestID: {} - Message: {}", requestId, ex.getMessage(), ex);
+        // Log HTTP request with status code and duration, as structured fields as well as in the message.
+        // http_route comes from the MDC, which also keys log sampling
+        Object[] fields = {v("http_method", method), v("http_path", uri), v("http_status", status),
+                v("response_time", duration), requestId};
+        MDC.put(SamplingTurboFilter.MDC_ROUTE, route);
+        try {
+            if (status >= 500) {
+                log.error(ACCESS_LOG_MESSAGE, fields);
+            } else if (status >= 400) {
+                log.warn(ACCESS_LOG_MESSAGE, fields);
+            } else {
+                log.info(ACCESS_LOG_MESSAGE, fields);
+            }
+
+            if (ex != null) {
+                log.error("Request failed with exception - RequestID: {} - Message: {}", requestId, ex.getMessage(), ex);
+            }
+        } finally {
+            MDC.remove(MDC_REQUEST_ID);
+            MDC.remove(SamplingTurboFilter.MDC_ROUTE);
         }
     }
 
+    private void recordLatency(String route, String method, int status, long durationNanos) {
+        Timer.builder(MetricsConfig.API_REQUESTS)
+                .tag("route", route)
+                .tag("method", method)
+                .tag("status", (status / 100) + "xx")
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_ROUTE;
+    }
+
     private String generateRequestId() {
         return "REQ-" + System.currentTimeMillis() + "-" + Thread.currentThread().threadId();
     }
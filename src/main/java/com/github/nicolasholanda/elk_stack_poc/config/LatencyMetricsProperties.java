@@ -0,0 +1,14 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.metrics.latency")
+public record LatencyMetricsProperties(
+        @DefaultValue({"10ms", "25ms", "50ms", "100ms", "250ms", "500ms", "1s"}) List<Duration> slo,
+        @DefaultValue({"0.5", "0.95", "0.99"}) List<Double> percentiles,
+        @DefaultValue("true") boolean percentilesHistogram) {
+}
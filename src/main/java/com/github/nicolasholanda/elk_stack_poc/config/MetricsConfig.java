@@ -0,0 +1,32 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    public static final String API_REQUESTS = "api.requests";
+    public static final String API_SERVICE = "api.service";
+
+    @Bean
+    public MeterFilter latencyDistributionFilter(LatencyMetricsProperties properties) {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals(API_REQUESTS) && !id.getName().equals(API_SERVICE)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(properties.percentilesHistogram())
+                        .percentiles(properties.percentiles().stream().mapToDouble(Double::doubleValue).toArray())
+                        .serviceLevelObjectives(properties.slo().stream().mapToDouble(slo -> slo.toNanos()).toArray())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.orders.batch")
+public record OrderBatchProperties(
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("10000") int maxSize) {
+}
@@ -0,0 +1,13 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.orders.changes")
+public record OrderChangeProperties(
+        @DefaultValue("10000") int journalSize,
+        @DefaultValue("100") int maxSubscribers,
+        @DefaultValue("15s") Duration heartbeatInterval) {
+}
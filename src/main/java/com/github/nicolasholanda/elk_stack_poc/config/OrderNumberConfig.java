@@ -0,0 +1,19 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import com.github.nicolasholanda.elk_stack_poc.service.OrderNumberGenerator;
+import com.github.nicolasholanda.elk_stack_poc.service.SnowflakeOrderNumberGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class OrderNumberConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OrderNumberGenerator orderNumberGenerator(OrderNumberProperties properties) {
+        return new SnowflakeOrderNumberGenerator(properties.nodeId(), properties.epoch(), Clock.systemUTC());
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Instant;
+
+@ConfigurationProperties(prefix = "app.orders.number")
+public record OrderNumberProperties(
+        @DefaultValue("0") int nodeId,
+        @DefaultValue("2025-01-01T00:00:00Z") Instant epoch) {
+}
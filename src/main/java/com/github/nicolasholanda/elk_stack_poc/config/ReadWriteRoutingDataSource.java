@@ -0,0 +1,126 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections of read-only transactions to the replica pool and everything else to the primary.
+ * Has to sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the
+ * physical connection is only fetched on the first statement, once the transaction is marked read-only.
+ * <p>
+ * Reads stay on the primary while the current thread is inside a read-your-writes window
+ * ({@link #usePrimaryOnly()}), and while the replica is down: a background check probes it periodically,
+ * and a failed connection attempt marks it down right away and falls back to the primary.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final HikariDataSource replica;
+    private final ScheduledExecutorService healthCheck;
+    private volatile boolean replicaAvailable = true;
+
+    public ReadWriteRoutingDataSource(DataSource primary, HikariDataSource replica, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replica = replica;
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-health-check").daemon().factory());
+        long interval = healthCheckInterval.toMillis();
+        healthCheck.scheduleWithFixedDelay(this::checkReplica, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Routes every connection the current thread opens to the primary, until {@link #clearPrimaryOnly()}.
+     */
+    public static void usePrimaryOnly() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    public static void clearPrimaryOnly() {
+        PRIMARY_ONLY.remove();
+    }
+
+    public static boolean isPrimaryOnly() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    /**
+     * Runs {@code read} with every connection routed to the primary, for reads whose result outlives the
+     * request (such as cache loads) and so must not be behind the latest write.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPrimaryOnly()) {
+            return read.get();
+        }
+        usePrimaryOnly();
+        try {
+            return read.get();
+        } finally {
+            clearPrimaryOnly();
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicaAvailable && PRIMARY_ONLY.get() == null
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                replicaUnavailable(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public void close() {
+        healthCheck.shutdownNow();
+        replica.close();
+    }
+
+    private void checkReplica() {
+        try (Connection connection = replica.getConnection()) {
+            if (connection.isValid(1)) {
+                if (!replicaAvailable) {
+                    log.info("Read replica is available again, routing read-only transactions to it");
+                }
+                replicaAvailable = true;
+                return;
+            }
+            replicaUnavailable(null);
+        } catch (Exception e) {
+            replicaUnavailable(e);
+        }
+    }
+
+    private void replicaUnavailable(Exception cause) {
+        if (replicaAvailable) {
+            log.warn("Read replica is unavailable, routing all reads to the primary: {}",
+                    cause == null ? "connection is not valid" : cause.getMessage());
+        }
+        replicaAvailable = false;
+    }
+}
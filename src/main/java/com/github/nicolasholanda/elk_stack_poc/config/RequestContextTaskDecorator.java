@@ -0,0 +1,52 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Carries the submitting thread's MDC (request id) and read-your-writes routing
+ * ({@link ReadWriteRoutingDataSource#usePrimaryOnly()}) into tasks run by the application task executor,
+ * which also runs async MVC work such as streaming responses.
+ */
+@Component
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    @NonNull
+    public Runnable decorate(@NonNull Runnable runnable) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        boolean primaryOnly = ReadWriteRoutingDataSource.isPrimaryOnly();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            boolean previousPrimaryOnly = ReadWriteRoutingDataSource.isPrimaryOnly();
+            if (context == null) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(context);
+            }
+            if (primaryOnly) {
+                ReadWriteRoutingDataSource.usePrimaryOnly();
+            } else {
+                ReadWriteRoutingDataSource.clearPrimaryOnly();
+            }
+            try {
+                runnable.run();
+            } finally {
+                if (previous == null) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(previous);
+                }
+                if (previousPrimaryOnly) {
+                    ReadWriteRoutingDataSource.usePrimaryOnly();
+                } else {
+                    ReadWriteRoutingDataSource.clearPrimaryOnly();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,118 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import jakarta.persistence.Entity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Skips Hibernate's {@code ddl-auto=validate} when neither the applied Flyway migrations (version and
+ * checksum) nor the entity classes changed since a start that validated successfully. The fingerprint
+ * of that start is kept in {@code app.startup.schema-validation-cache}; the fast-start build bakes it in
+ * with its training run. A schema changed outside Flyway is not detected while the cache matches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchemaValidationCache implements HibernatePropertiesCustomizer, SmartInitializingSingleton {
+
+    private final StartupProperties properties;
+    private final ObjectProvider<Flyway> flyway;
+    private final ApplicationContext applicationContext;
+
+    private volatile String validatedFingerprint;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        Path cache = properties.schemaValidationCache();
+        Flyway migrations = flyway.getIfUnique();
+        if (cache == null || migrations == null || !"validate".equals(hibernateProperties.get(AvailableSettings.HBM2DDL_AUTO))) {
+            return;
+        }
+        String fingerprint = fingerprint(migrations);
+        if (fingerprint.equals(read(cache))) {
+            hibernateProperties.put(AvailableSettings.HBM2DDL_AUTO, "none");
+            log.info("Skipping schema validation, migrations and entities unchanged since last validation");
+        } else {
+            validatedFingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * Runs once the eager singletons, including the entity manager factory, exist, so validation passed.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        String fingerprint = validatedFingerprint;
+        validatedFingerprint = null;
+        if (fingerprint != null) {
+            try {
+                Files.writeString(properties.schemaValidationCache(), fingerprint);
+            } catch (IOException e) {
+                log.warn("Could not write schema validation cache {}", properties.schemaValidationCache(), e);
+            }
+        }
+    }
+
+    private String fingerprint(Flyway migrations) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (MigrationInfo migration : migrations.info().applied()) {
+            digest.update((migration.getVersion() + ":" + migration.getChecksum() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        TreeSet<String> entities = new TreeSet<>();
+        for (String basePackage : AutoConfigurationPackages.get(applicationContext.getAutowireCapableBeanFactory())) {
+            scanner.findCandidateComponents(basePackage).stream()
+                    .map(BeanDefinition::getBeanClassName)
+                    .forEach(entities::add);
+        }
+        for (String entity : entities) {
+            try (InputStream classFile = applicationContext.getClassLoader()
+                    .getResourceAsStream(ClassUtils.convertClassNameToResourcePath(entity) + ClassUtils.CLASS_FILE_SUFFIX)) {
+                digest.update(entity.getBytes(StandardCharsets.UTF_8));
+                digest.update(classFile.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String read(Path cache) {
+        try {
+            return Files.exists(cache) ? Files.readString(cache).trim() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
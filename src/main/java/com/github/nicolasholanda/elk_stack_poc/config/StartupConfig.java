@@ -0,0 +1,24 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import com.github.nicolasholanda.elk_stack_poc.logging.RouteRollup;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+/**
+ * Beans that stay eager under {@code spring.main.lazy-initialization} (fast-start profile): the pool and
+ * JPA bootstrap (which runs Flyway first), so the first request does not pay for them, and beans with
+ * {@code @Scheduled} methods, which are only scheduled once instantiated.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, AbstractEntityManagerFactoryBean.class,
+                RouteRollup.class);
+    }
+}
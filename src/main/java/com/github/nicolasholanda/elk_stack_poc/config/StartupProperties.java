@@ -0,0 +1,13 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * @param schemaValidationCache file remembering the migrations and entities that last passed Hibernate
+ *                              schema validation; unset to always validate
+ */
+@ConfigurationProperties(prefix = "app.startup")
+public record StartupProperties(Path schemaValidationCache) {
+}
@@ -9,12 +9,15 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
     private final HttpLoggingInterceptor httpLoggingInterceptor;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // First, so a shed request costs no request id, access log line or timer
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns("/api/**");
         registry.addInterceptor(httpLoggingInterceptor)
                 .addPathPatterns("/api/**");
     }
 }
-
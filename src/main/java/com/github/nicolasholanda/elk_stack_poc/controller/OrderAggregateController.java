@@ -0,0 +1,52 @@
+package com.github.nicolasholanda.elk_stack_poc.controller;
+
+import com.github.nicolasholanda.elk_stack_poc.model.AggregateCheck;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderTotals;
+import com.github.nicolasholanda.elk_stack_poc.service.OrderAggregates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/orders/aggregates")
+@RequiredArgsConstructor
+public class OrderAggregateController {
+
+    private final OrderAggregates orderAggregates;
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<Order.OrderStatus, OrderTotals>> getTotalsByStatus() {
+        log.info("Received request to get order totals by status");
+        return ResponseEntity.ok(orderAggregates.totalsByStatus());
+    }
+
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<OrderTotals> getTotalsForUser(@PathVariable Long userId) {
+        log.info("Received request to get order totals for user: {}", v("user_id", userId));
+        return ResponseEntity.ok(orderAggregates.totalsForUser(userId));
+    }
+
+    @GetMapping("/days")
+    public ResponseEntity<SortedMap<LocalDate, OrderTotals>> getTotalsByDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Received request to get order totals by day from {} to {}", from, to);
+        return ResponseEntity.ok(orderAggregates.totalsByDay(from, to));
+    }
+
+    @GetMapping("/consistency")
+    public ResponseEntity<AggregateCheck> checkConsistency() {
+        log.info("Received request to check order aggregates against the orders table");
+        return ResponseEntity.ok(orderAggregates.checkConsistency());
+    }
+}
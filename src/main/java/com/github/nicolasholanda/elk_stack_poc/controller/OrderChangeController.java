@@ -0,0 +1,93 @@
+package com.github.nicolasholanda.elk_stack_poc.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderChangeEvent;
+import com.github.nicolasholanda.elk_stack_poc.service.OrderChangeJournal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
+
+/**
+ * Change stream of orders as server-sent events or NDJSON. Without {@code after} (or a
+ * {@code Last-Event-ID} header) the stream starts with the next change.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/orders/changes")
+@RequiredArgsConstructor
+public class OrderChangeController {
+
+    private final OrderChangeJournal orderChangeJournal;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestParam(required = false) Long after,
+                                                    @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+                                                    @RequestParam(required = false) Long userId) {
+        Long from = lastEventId != null ? lastEventId : after;
+        log.info("Received request to stream order changes after sequence: {}", v("sequence", from));
+        SseEmitter emitter = new SseEmitter(0L);
+        return subscribe(from, userId, emitter, new OrderChangeJournal.ChangeSink() {
+            @Override
+            public void send(OrderChangeEvent event) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.sequence()))
+                        .name(event.type().name())
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamChangesAsNdjson(@RequestParam(required = false) Long after,
+                                                                     @RequestParam(required = false) Long userId) {
+        log.info("Received request to stream order changes as NDJSON after sequence: {}", v("sequence", after));
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        return subscribe(after, userId, emitter, new OrderChangeJournal.ChangeSink() {
+            @Override
+            public void send(OrderChangeEvent event) throws IOException {
+                emitter.send(objectMapper.writeValueAsString(event) + "\n", MediaType.APPLICATION_NDJSON);
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send("\n", MediaType.APPLICATION_NDJSON);
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+    }
+
+    private <T extends ResponseBodyEmitter> ResponseEntity<T> subscribe(Long after, Long userId, T emitter,
+                                                                         OrderChangeJournal.ChangeSink sink) {
+        try {
+            orderChangeJournal.subscribe(after, userId, sink);
+        } catch (IllegalStateException e) {
+            log.warn("Rejected order change subscriber: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
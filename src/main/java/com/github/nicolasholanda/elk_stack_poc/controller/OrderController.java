@@ -1,26 +1,43 @@
 package com.github.nicolasholanda.elk_stack_poc.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nicolasholanda.elk_stack_poc.model.BatchResult;
+import com.github.nicolasholanda.elk_stack_poc.model.CursorPage;
 import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderSearchCriteria;
+import com.github.nicolasholanda.elk_stack_poc.model.StatusTransitionRequest;
+import com.github.nicolasholanda.elk_stack_poc.model.StatusTransitionResult;
 import com.github.nicolasholanda.elk_stack_poc.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+import static net.logstash.logback.argument.StructuredArguments.v;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Order> createOrder(@RequestBody Order order) {
-        log.info("Received request to create order for user: {}", order.getUserId());
+        log.info("Received request to create order for user: {}", v("user_id", order.getUserId()));
         try {
             Order createdOrder = orderService.createOrder(order);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
@@ -30,78 +47,162 @@ public class OrderController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult> createOrders(@RequestBody List<Order> orders) {
+        log.info("Received request to create batch of {} orders", orders.size());
+        try {
+            return ResponseEntity.ok(orderService.createOrders(orders));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected order batch: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+    }
+
+    @PostMapping("/status-transitions")
+    public ResponseEntity<StatusTransitionResult> transitionOrders(@RequestBody StatusTransitionRequest request) {
+        log.info("Received request to transition orders to status: {}", v("order_status", request.targetStatus()));
+        try {
+            return ResponseEntity.ok(orderService.transitionOrders(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected status transition: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-        log.info("Received request to get order with id: {}", id);
+        log.info("Received request to get order with id: {}", v("order_id", id));
         return orderService.getOrderById(id)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> {
-                    log.warn("Order not found with id: {}", id);
+                    log.warn("Order not found with id: {}", v("order_id", id));
                     return ResponseEntity.notFound().build();
                 });
     }
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        log.info("Received request to get all orders");
-        List<Order> orders = orderService.getAllOrders();
-        log.info("Retrieved {} orders", orders.size());
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<?>> getAllOrders(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "100") int limit,
+                                              @RequestParam(required = false) String fields) {
+        log.info("Received request to get orders page with cursor: {}", cursor);
+        CursorPage<?> page;
+        try {
+            int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+            page = fields == null
+                    ? orderService.getAllOrders(cursor, pageSize)
+                    : orderService.getAllOrders(cursor, pageSize, fields);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected orders page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Retrieved {} orders", page.items().size());
+        return PageResponses.ok(page);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<?>> searchOrders(OrderSearchCriteria criteria,
+                                                @RequestParam(defaultValue = "createdAt") String sort,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        log.info("Received request to search orders by {} sorted by {} with cursor: {}", criteria, sort, cursor);
+        CursorPage<Order> page;
+        try {
+            page = orderService.searchOrders(criteria, sort, cursor, Math.clamp(limit, 1, MAX_PAGE_SIZE));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected order search: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Found {} orders", page.items().size());
+        return PageResponses.ok(page);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        log.info("Received request to stream all orders");
+        StreamingResponseBody body = out -> orderService.streamAllOrders(order -> writeLine(out, order));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/number/{orderNumber}")
     public ResponseEntity<Order> getOrderByOrderNumber(@PathVariable String orderNumber) {
-        log.info("Received request to get order with orderNumber: {}", orderNumber);
+        log.info("Received request to get order with orderNumber: {}", v("order_number", orderNumber));
         return orderService.getOrderByOrderNumber(orderNumber)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> {
-                    log.warn("Order not found with orderNumber: {}", orderNumber);
+                    log.warn("Order not found with orderNumber: {}", v("order_number", orderNumber));
                     return ResponseEntity.notFound().build();
                 });
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getOrdersByUserId(@PathVariable Long userId) {
-        log.info("Received request to get orders for user: {}", userId);
-        List<Order> orders = orderService.getOrdersByUserId(userId);
-        log.info("Retrieved {} orders for user: {}", orders.size(), userId);
+    public ResponseEntity<List<?>> getOrdersByUserId(@PathVariable Long userId,
+                                                     @RequestParam(required = false) String fields) {
+        log.info("Received request to get orders for user: {}", v("user_id", userId));
+        List<?> orders;
+        try {
+            orders = fields == null
+                    ? orderService.getOrdersByUserId(userId)
+                    : orderService.getOrdersByUserId(userId, fields);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected orders request for user {}: {}", v("user_id", userId), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Retrieved {} orders for user: {}", orders.size(), v("user_id", userId));
         return ResponseEntity.ok(orders);
     }
 
     @PutMapping("/{id}/status")
-    public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id, @RequestParam Order.OrderStatus status) {
-        log.info("Received request to update order status for id: {} to: {}", id, status);
+    public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id, @RequestParam Order.OrderStatus status,
+                                                   @RequestParam(required = false) Long version) {
+        log.info("Received request to update order status for id: {} to: {}", v("order_id", id), v("order_status", status));
         try {
-            Order updatedOrder = orderService.updateOrderStatus(id, status);
+            Order updatedOrder = orderService.updateOrderStatus(id, status, version);
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Conflicting status update for order id: {}", v("order_id", id));
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
-            log.error("Failed to update order status for id: {}", id, e);
+            log.error("Failed to update order status for id: {}", v("order_id", id), e);
             return ResponseEntity.notFound().build();
         }
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order orderDetails) {
-        log.info("Received request to update order with id: {}", id);
+        log.info("Received request to update order with id: {}", v("order_id", id));
         try {
             Order updatedOrder = orderService.updateOrder(id, orderDetails);
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Conflicting update for order id: {}", v("order_id", id));
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
-            log.error("Failed to update order with id: {}", id, e);
+            log.error("Failed to update order with id: {}", v("order_id", id), e);
             return ResponseEntity.notFound().build();
         }
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
-        log.info("Received request to delete order with id: {}", id);
+        log.info("Received request to delete order with id: {}", v("order_id", id));
         try {
             orderService.deleteOrder(id);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            log.error("Failed to delete order with id: {}", id, e);
+            log.error("Failed to delete order with id: {}", v("order_id", id), e);
             return ResponseEntity.notFound().build();
         }
     }
+
+    private void writeLine(OutputStream out, Order order) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(order));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
 
@@ -0,0 +1,32 @@
+package com.github.nicolasholanda.elk_stack_poc.controller;
+
+import com.github.nicolasholanda.elk_stack_poc.model.CursorPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+/**
+ * Renders a {@link CursorPage} as the page items, with the next cursor in {@code X-Next-Cursor} and a
+ * {@code Link: rel="next"} to the current request with that cursor.
+ */
+final class PageResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private PageResponses() {
+    }
+
+    static ResponseEntity<List<?>> ok(CursorPage<?> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            String nextUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.next())
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.next())
+                    .header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
+    }
+}
@@ -1,26 +1,39 @@
 package com.github.nicolasholanda.elk_stack_poc.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nicolasholanda.elk_stack_poc.model.CursorPage;
 import com.github.nicolasholanda.elk_stack_poc.model.User;
 import com.github.nicolasholanda.elk_stack_poc.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+import static net.logstash.logback.argument.StructuredArguments.v;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<User> createUser(@RequestBody User user) {
-        log.info("Received request to create user with email: {}", user.getEmail());
+        log.info("Received request to create user with email: {}", v("email", user.getEmail()));
         try {
             User createdUser = userService.createUser(user);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
@@ -32,56 +45,88 @@ public class UserController {
 
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        log.info("Received request to get user with id: {}", id);
+        log.info("Received request to get user with id: {}", v("user_id", id));
         return userService.getUserById(id)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> {
-                    log.warn("User not found with id: {}", id);
+                    log.warn("User not found with id: {}", v("user_id", id));
                     return ResponseEntity.notFound().build();
                 });
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        log.info("Received request to get all users");
-        List<User> users = userService.getAllUsers();
-        log.info("Retrieved {} users", users.size());
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<?>> getAllUsers(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "100") int limit,
+                                              @RequestParam(required = false) String fields) {
+        log.info("Received request to get users page with cursor: {}", cursor);
+        CursorPage<?> page;
+        try {
+            int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+            page = fields == null
+                    ? userService.getAllUsers(cursor, pageSize)
+                    : userService.getAllUsers(cursor, pageSize, fields);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected users page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Retrieved {} users", page.items().size());
+        return PageResponses.ok(page);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.info("Received request to stream all users");
+        StreamingResponseBody body = out -> userService.streamAllUsers(user -> writeLine(out, user));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/email/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        log.info("Received request to get user with email: {}", email);
+        log.info("Received request to get user with email: {}", v("email", email));
         return userService.getUserByEmail(email)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> {
-                    log.warn("User not found with email: {}", email);
+                    log.warn("User not found with email: {}", v("email", email));
                     return ResponseEntity.notFound().build();
                 });
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
-        log.info("Received request to update user with id: {}", id);
+        log.info("Received request to update user with id: {}", v("user_id", id));
         try {
             User updatedUser = userService.updateUser(id, userDetails);
             return ResponseEntity.ok(updatedUser);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Conflicting update for user id: {}", v("user_id", id));
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
-            log.error("Failed to update user with id: {}", id, e);
+            log.error("Failed to update user with id: {}", v("user_id", id), e);
             return ResponseEntity.notFound().build();
         }
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        log.info("Received request to delete user with id: {}", id);
+        log.info("Received request to delete user with id: {}", v("user_id", id));
         try {
             userService.deleteUser(id);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            log.error("Failed to delete user with id: {}", id, e);
+            log.error("Failed to delete user with id: {}", v("user_id", id), e);
             return ResponseEntity.notFound().build();
         }
     }
+
+    private void writeLine(OutputStream out, User user) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(user));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
 
@@ -0,0 +1,153 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only NDJSON segment files holding batches the sink could not take. Segments are replayed
+ * oldest first and survive restarts. When the spool exceeds its size cap the oldest segments are
+ * discarded. Only used from the shipper thread.
+ */
+final class DiskSpool {
+
+    private static final String PREFIX = "spool-";
+    private static final String SUFFIX = ".ndjson";
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final long maxTotalBytes;
+    private final Deque<Path> closedSegments = new ArrayDeque<>();
+    private long nextSequence;
+    private Path activeSegment;
+    private OutputStream activeOut;
+    private long activeBytes;
+    private volatile long totalBytes;
+    private volatile int segmentCount;
+
+    DiskSpool(Path directory, long maxSegmentBytes, long maxTotalBytes) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxTotalBytes = maxTotalBytes;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> existing = files
+                    .filter(path -> sequenceOf(path) >= 0)
+                    .sorted(Comparator.comparingLong(DiskSpool::sequenceOf))
+                    .toList();
+            for (Path segment : existing) {
+                closedSegments.addLast(segment);
+                totalBytes += Files.size(segment);
+                nextSequence = sequenceOf(segment) + 1;
+            }
+        }
+        segmentCount = closedSegments.size();
+    }
+
+    /**
+     * Appends a batch and returns the number of events discarded to stay under the size cap.
+     */
+    long append(byte[] ndjson) throws IOException {
+        if (activeOut == null || activeBytes + ndjson.length > maxSegmentBytes) {
+            rotate();
+        }
+        activeOut.write(ndjson);
+        activeOut.flush();
+        activeBytes += ndjson.length;
+        totalBytes += ndjson.length;
+
+        long discarded = 0;
+        while (totalBytes > maxTotalBytes && !closedSegments.isEmpty()) {
+            Path oldest = closedSegments.pollFirst();
+            discarded += countLines(Files.readAllBytes(oldest));
+            remove(oldest);
+        }
+        return discarded;
+    }
+
+    /**
+     * Returns the oldest complete segment, closing the active one if nothing else is left.
+     */
+    Path oldestSegment() throws IOException {
+        if (closedSegments.isEmpty() && activeOut != null) {
+            closeActive();
+        }
+        return closedSegments.peekFirst();
+    }
+
+    byte[] read(Path segment) throws IOException {
+        return Files.readAllBytes(segment);
+    }
+
+    void remove(Path segment) throws IOException {
+        long size = Files.size(segment);
+        Files.deleteIfExists(segment);
+        closedSegments.remove(segment);
+        totalBytes -= size;
+        segmentCount = closedSegments.size() + (activeOut == null ? 0 : 1);
+    }
+
+    boolean isEmpty() {
+        return totalBytes == 0;
+    }
+
+    long sizeBytes() {
+        return totalBytes;
+    }
+
+    int segmentCount() {
+        return segmentCount;
+    }
+
+    void close() throws IOException {
+        closeActive();
+    }
+
+    private void rotate() throws IOException {
+        closeActive();
+        activeSegment = directory.resolve(PREFIX + String.format("%019d", nextSequence++) + SUFFIX);
+        activeOut = Files.newOutputStream(activeSegment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeBytes = 0;
+        segmentCount = closedSegments.size() + 1;
+    }
+
+    private void closeActive() throws IOException {
+        if (activeOut == null) {
+            return;
+        }
+        activeOut.close();
+        activeOut = null;
+        closedSegments.addLast(activeSegment);
+        activeSegment = null;
+        segmentCount = closedSegments.size();
+    }
+
+    static long countLines(byte[] ndjson) {
+        long lines = 0;
+        for (byte b : ndjson) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Posts batches to the Elasticsearch {@code _bulk} API as a gzip-compressed body, using the same
+ * daily index naming as the Logstash pipeline. Events bypass Logstash, so each gets the treatment of its
+ * filter block here ({@link LogBackfillDocuments#enrich}) to look like any other event to the dashboards.
+ * <p>
+ * {@code _bulk} answers 200 even when single items failed, so the items are checked as well: a throttled
+ * (429) or failed (5xx) item fails the whole batch so it is spooled and sent again, any other rejected
+ * item is reported as refused. Items of a re-sent batch that had already been indexed are indexed again.
+ */
+class ElasticsearchBulkLogSink implements LogSink {
+
+    private static final DateTimeFormatter INDEX_DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final List<String> TAGS = List.of("spring-boot", "elk-stack-poc", "shipped");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final URI bulkUri;
+    private final String indexPrefix;
+    private final Duration requestTimeout;
+
+    ElasticsearchBulkLogSink(String baseUrl, String indexPrefix, int timeoutMillis) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMillis))
+                .build();
+        this.bulkUri = URI.create(baseUrl.replaceAll("/+$", "") + "/_bulk");
+        this.indexPrefix = indexPrefix;
+        this.requestTimeout = Duration.ofMillis(timeoutMillis);
+    }
+
+    @Override
+    public int send(byte[] ndjson) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(bulkUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/x-ndjson")
+                .header("Content-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(gzip(toBulkBody(ndjson))))
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sending bulk request", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Bulk request rejected with status " + response.statusCode());
+        }
+        return rejectedItems(response.body());
+    }
+
+    int rejectedItems(String responseBody) throws IOException {
+        JsonNode response = objectMapper.readTree(responseBody);
+        if (response == null || !response.path("errors").asBoolean()) {
+            return 0;
+        }
+        int rejected = 0;
+        for (JsonNode item : response.path("items")) {
+            int status = item.path("index").path("status").asInt();
+            if (status == 429 || status >= 500) {
+                throw new IOException("Bulk item rejected with status " + status + ": " + item.path("index").path("error"));
+            }
+            if (status / 100 != 2) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    byte[] toBulkBody(byte[] ndjson) throws IOException {
+        byte[] action = ("{\"index\":{\"_index\":\"" + indexPrefix + "-"
+                + LocalDate.now(ZoneOffset.UTC).format(INDEX_DATE) + "\"}}\n").getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(ndjson.length + ndjson.length / 2);
+        int lineStart = 0;
+        for (int i = 0; i < ndjson.length; i++) {
+            if (ndjson[i] == '\n') {
+                if (i > lineStart) {
+                    body.writeBytes(action);
+                    body.writeBytes(document(ndjson, lineStart, i - lineStart));
+                    body.write('\n');
+                }
+                lineStart = i + 1;
+            }
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * The enriched event, or the line as it is when it is not a JSON object (Elasticsearch refuses it).
+     */
+    private byte[] document(byte[] ndjson, int offset, int length) throws IOException {
+        JsonNode parsed;
+        try {
+            parsed = objectMapper.readTree(ndjson, offset, length);
+        } catch (JsonProcessingException e) {
+            parsed = null;
+        }
+        if (!(parsed instanceof ObjectNode event)) {
+            return Arrays.copyOfRange(ndjson, offset, offset + length);
+        }
+        LogBackfillDocuments.enrich(event, TAGS);
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,415 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.Setter;
+import net.logstash.logback.argument.StructuredArgument;
+import net.logstash.logback.encoder.LogstashEncoder;
+import net.logstash.logback.marker.ObjectAppendingMarker;
+import net.logstash.logback.marker.SingleFieldAppendingMarker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the same bytes as a {@link LogstashEncoder} with the same {@code includeContext},
+ * {@code includeMdc}, {@code timeZone} and {@code customFields}, with far less garbage per event.
+ * Context properties and custom fields are encoded once at start, logger and thread names once per
+ * name, and the event is written into a reusable per-thread buffer, so the returned array is the only
+ * allocation besides the formatted message. Timestamps are written from the epoch seconds without
+ * {@code DateTimeFormatter}.
+ * <p>
+ * With {@code lean=false} every event goes to an embedded {@link LogstashEncoder}. Events this encoder
+ * does not write itself go there too:
+ * events with a throwable, markers or key/value pairs, and structured arguments other than
+ * {@code v(...)}/{@code kv(...)} with a string, integer, boolean, decimal or enum value.
+ */
+public class LeanLogstashEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final MethodHandle FIELD_VALUE = fieldValueHandle();
+    private static final int MAX_CACHED_NAMES = 4096;
+    private static final int MAX_RETAINED_BUFFER = 1 << 16;
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    @Getter
+    @Setter
+    private boolean lean = true;
+
+    @Getter
+    @Setter
+    private boolean includeContext = true;
+
+    @Getter
+    @Setter
+    private boolean includeMdc = true;
+
+    @Getter
+    @Setter
+    private String timeZone;
+
+    @Getter
+    @Setter
+    private String customFields;
+
+    private final LogstashEncoder fallback = new LogstashEncoder();
+    private final ThreadLocal<JsonBuffer> buffers = ThreadLocal.withInitial(JsonBuffer::new);
+    private final Map<String, byte[]> loggerNames = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> threadNames = new ConcurrentHashMap<>();
+    private final Map<Level, byte[]> levels = new ConcurrentHashMap<>();
+    private ZoneRules zoneRules;
+    private byte[] contextFields;
+    private byte[] staticFields;
+    private byte[] lineSeparator;
+
+    @Override
+    public void start() {
+        fallback.setContext(getContext());
+        fallback.setIncludeContext(includeContext);
+        fallback.setIncludeMdc(includeMdc);
+        if (timeZone != null) {
+            fallback.setTimeZone(timeZone);
+        }
+        if (customFields != null) {
+            fallback.setCustomFields(customFields);
+        }
+        fallback.start();
+        zoneRules = (timeZone != null ? TimeZone.getTimeZone(timeZone).toZoneId() : ZoneId.systemDefault()).getRules();
+        lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        JsonBuffer buffer = new JsonBuffer();
+        if (includeContext) {
+            for (Map.Entry<String, String> property : getContext().getCopyOfPropertyMap().entrySet()) {
+                buffer.field(property.getKey()).string(property.getValue());
+            }
+        }
+        contextFields = buffer.toByteArray();
+        buffer.reset();
+        if (customFields != null && !customFields.isBlank()) {
+            try {
+                ObjectMapper objectMapper = new ObjectMapper();
+                for (Map.Entry<String, JsonNode> field : objectMapper.readTree(customFields).properties()) {
+                    buffer.field(field.getKey()).raw(objectMapper.writeValueAsBytes(field.getValue()));
+                }
+            } catch (Exception e) {
+                addError("Invalid customFields " + customFields, e);
+                return;
+            }
+        }
+        staticFields = buffer.toByteArray();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        fallback.stop();
+        super.stop();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        if (!lean || event.getThrowableProxy() != null || (event.getMarkerList() != null && !event.getMarkerList().isEmpty())
+                || (event.getKeyValuePairs() != null && !event.getKeyValuePairs().isEmpty())
+                || event.getFormattedMessage() == null) {
+            return fallback.encode(event);
+        }
+        JsonBuffer buffer = buffers.get();
+        buffer.reset();
+        try {
+            buffer.ascii("{\"@timestamp\":\"");
+            timestamp(buffer, event.getInstant());
+            buffer.ascii("\",\"@version\":\"1\",\"message\":").string(event.getFormattedMessage());
+            buffer.raw(cached(loggerNames, ",\"logger_name\":", event.getLoggerName()));
+            buffer.raw(cached(threadNames, ",\"thread_name\":", event.getThreadName()));
+            buffer.raw(levels.computeIfAbsent(event.getLevel(), level -> (",\"level\":\"" + level
+                    + "\",\"level_value\":" + level.toInt()).getBytes(StandardCharsets.UTF_8)));
+            buffer.raw(contextFields);
+            if (includeMdc) {
+                for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+                    if (entry.getValue() == null) {
+                        return fallback.encode(event);
+                    }
+                    buffer.field(entry.getKey()).string(entry.getValue());
+                }
+            }
+            Object[] arguments = event.getArgumentArray();
+            if (arguments != null) {
+                for (Object argument : arguments) {
+                    if (argument instanceof ObjectAppendingMarker marker) {
+                        buffer.field(marker.getFieldName());
+                        if (!value(buffer, FIELD_VALUE.invoke(marker))) {
+                            return fallback.encode(event);
+                        }
+                    } else if (argument instanceof StructuredArgument) {
+                        return fallback.encode(event);
+                    }
+                }
+            }
+            buffer.raw(staticFields).ascii("}").raw(lineSeparator);
+            return buffer.toByteArray();
+        } catch (Unsupported e) {
+            return fallback.encode(event);
+        } catch (Throwable e) {
+            addError("Failed to encode event, using LogstashEncoder", e);
+            return fallback.encode(event);
+        } finally {
+            buffer.trim();
+        }
+    }
+
+    /**
+     * {@code ISO_OFFSET_DATE_TIME}: fraction digits without trailing zeros, {@code Z} for UTC.
+     */
+    private void timestamp(JsonBuffer buffer, Instant instant) {
+        int offset = zoneRules.getOffset(instant).getTotalSeconds();
+        long local = instant.getEpochSecond() + offset;
+        long days = Math.floorDiv(local, 86_400L);
+        int secondOfDay = (int) Math.floorMod(local, 86_400L);
+        // days since 1970-01-01 to civil date, see https://howardhinnant.github.io/date_algorithms.html
+        long shifted = days + 719_468;
+        long era = Math.floorDiv(shifted, 146_097);
+        int dayOfEra = (int) (shifted - era * 146_097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999 || offset % 60 != 0) {
+            throw Unsupported.INSTANCE;
+        }
+        buffer.digits((int) year, 4).ascii("-").digits(month, 2).ascii("-").digits(day, 2)
+                .ascii("T").digits(secondOfDay / 3600, 2).ascii(":").digits(secondOfDay / 60 % 60, 2)
+                .ascii(":").digits(secondOfDay % 60, 2);
+        int nanos = instant.getNano();
+        if (nanos > 0) {
+            int digits = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                digits--;
+            }
+            buffer.ascii(".").digits(nanos, digits);
+        }
+        if (offset == 0) {
+            buffer.ascii("Z");
+        } else {
+            buffer.ascii(offset < 0 ? "-" : "+").digits(Math.abs(offset) / 3600, 2)
+                    .ascii(":").digits(Math.abs(offset) / 60 % 60, 2);
+        }
+    }
+
+    private static boolean value(JsonBuffer buffer, Object value) {
+        switch (value) {
+            case null -> buffer.ascii("null");
+            case String string -> buffer.string(string);
+            case Long number -> buffer.number(number);
+            case Integer number -> buffer.number(number);
+            case Short number -> buffer.number(number);
+            case Byte number -> buffer.number(number);
+            case BigInteger number -> buffer.ascii(number.toString());
+            case BigDecimal number -> buffer.ascii(number.toString());
+            case Boolean bool -> buffer.ascii(bool ? "true" : "false");
+            case Enum<?> constant -> buffer.string(constant.toString());
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] cached(Map<String, byte[]> cache, String prefix, String name) {
+        byte[] encoded = cache.get(name);
+        if (encoded == null) {
+            JsonBuffer buffer = new JsonBuffer();
+            buffer.ascii(prefix).string(name);
+            encoded = buffer.toByteArray();
+            if (cache.size() < MAX_CACHED_NAMES) {
+                cache.put(name, encoded);
+            }
+        }
+        return encoded;
+    }
+
+    private static MethodHandle fieldValueHandle() {
+        try {
+            return MethodHandles.privateLookupIn(SingleFieldAppendingMarker.class, MethodHandles.lookup())
+                    .findVirtual(SingleFieldAppendingMarker.class, "getFieldValue", MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Thrown for content whose JSON this encoder does not reproduce exactly.
+     */
+    private static final class Unsupported extends RuntimeException {
+
+        static final Unsupported INSTANCE = new Unsupported();
+
+        private Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Growable UTF-8 buffer with Jackson's escaping rules. Buffers that grew past 64 KiB for a large
+     * event are shrunk again.
+     */
+    private static final class JsonBuffer {
+
+        private byte[] bytes = new byte[1024];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void trim() {
+            if (bytes.length > MAX_RETAINED_BUFFER) {
+                bytes = new byte[1024];
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        JsonBuffer raw(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, length, value.length);
+            length += value.length;
+            return this;
+        }
+
+        JsonBuffer ascii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+            return this;
+        }
+
+        JsonBuffer field(String name) {
+            ascii(",");
+            string(name);
+            return ascii(":");
+        }
+
+        JsonBuffer digits(int value, int width) {
+            ensure(width);
+            for (int i = length + width - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += width;
+            return this;
+        }
+
+        JsonBuffer number(long value) {
+            if (value == Long.MIN_VALUE) {
+                return ascii(Long.toString(value));
+            }
+            if (value < 0) {
+                ascii("-");
+                value = -value;
+            }
+            int width = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                width++;
+            }
+            ensure(width);
+            for (int i = length + width - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += width;
+            return this;
+        }
+
+        JsonBuffer string(String value) {
+            ensure(value.length() + 2);
+            bytes[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                    ensure(1);
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x80) {
+                    escape(c);
+                } else if (c < 0x800) {
+                    ensure(2);
+                    bytes[length++] = (byte) (0xC0 | c >> 6);
+                    bytes[length++] = (byte) (0x80 | c & 0x3F);
+                } else if (!Character.isSurrogate(c)) {
+                    ensure(3);
+                    bytes[length++] = (byte) (0xE0 | c >> 12);
+                    bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    ensure(4);
+                    bytes[length++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | codePoint & 0x3F);
+                } else {
+                    throw Unsupported.INSTANCE;
+                }
+            }
+            ensure(1);
+            bytes[length++] = '"';
+            return this;
+        }
+
+        private void escape(char c) {
+            ensure(6);
+            bytes[length++] = '\\';
+            switch (c) {
+                case '"' -> bytes[length++] = '"';
+                case '\\' -> bytes[length++] = '\\';
+                case '\b' -> bytes[length++] = 'b';
+                case '\t' -> bytes[length++] = 't';
+                case '\n' -> bytes[length++] = 'n';
+                case '\f' -> bytes[length++] = 'f';
+                case '\r' -> bytes[length++] = 'r';
+                default -> {
+                    bytes[length++] = 'u';
+                    bytes[length++] = '0';
+                    bytes[length++] = '0';
+                    bytes[length++] = HEX[c >> 4];
+                    bytes[length++] = HEX[c & 0xF];
+                }
+            }
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays rotated {@code .gz} log archives into Elasticsearch, either as {@code _bulk} NDJSON files or
+ * straight to a {@code _bulk} endpoint. Run as {@code java -jar app.jar backfill ...}; Spring is not started.
+ * <p>
+ * Gzip streams cannot be split, so each archive is one task and archives run in parallel, largest
+ * first. An archive is recorded in the checkpoint file once all of its events are written, and a
+ * rerun skips recorded archives whose size and modification time are unchanged. A partially
+ * processed archive is replayed from the start, which is safe because every event has a stable
+ * {@code _id} (see {@link LogBackfillDocuments}).
+ */
+@Slf4j
+public class LogBackfill {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final LogBackfillOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder skippedLines = new LongAdder();
+    private final AtomicInteger completedArchives = new AtomicInteger();
+
+    LogBackfill(LogBackfillOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LogBackfillOptions options;
+        try {
+            options = LogBackfillOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LogBackfillOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        Result result = new LogBackfill(options).run();
+        if (result.failedArchives() > 0) {
+            System.exit(1);
+        }
+    }
+
+    Result run() throws IOException, InterruptedException {
+        Set<String> done = readCheckpoint();
+        List<Path> archives = new ArrayList<>();
+        try (DirectoryStream<Path> matches = Files.newDirectoryStream(options.directory(), options.pattern())) {
+            for (Path archive : matches) {
+                if (Files.isRegularFile(archive) && !done.contains(checkpointKey(archive))) {
+                    archives.add(archive);
+                }
+            }
+        }
+        archives.sort(Comparator.comparingLong(LogBackfill::size).reversed());
+        if (options.outputDirectory() != null) {
+            Files.createDirectories(options.outputDirectory());
+        }
+        log.info("Backfilling {} archives from {} with {} threads ({} already done)",
+                archives.size(), options.directory(), options.threads(), done.size());
+
+        long start = System.nanoTime();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "backfill-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        progress.scheduleAtFixedRate(() -> log.info("Backfilled {} events ({} events/s), {}/{} archives",
+                        events.sum(), eventsPerSecond(start), completedArchives.get(), archives.size()),
+                5, 5, TimeUnit.SECONDS);
+        int failed = 0;
+        try (ExecutorService workers = Executors.newFixedThreadPool(options.threads())) {
+            List<Future<?>> tasks = new ArrayList<>(archives.size());
+            for (Path archive : archives) {
+                tasks.add(workers.submit(() -> {
+                    backfill(archive);
+                    return null;
+                }));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    tasks.get(i).get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.error("Failed to backfill {}, it will be retried on the next run", archives.get(i), e.getCause());
+                }
+            }
+        } finally {
+            progress.shutdownNow();
+        }
+        Result result = new Result(completedArchives.get(), failed, events.sum(), duplicates.sum(),
+                skippedLines.sum(), eventsPerSecond(start));
+        log.info("Backfill finished: {} archives, {} failed, {} events ({} duplicates), {} unparseable lines, {} events/s",
+                result.archives(), result.failedArchives(), result.events(), result.duplicates(),
+                result.skippedLines(), result.eventsPerSecond());
+        return result;
+    }
+
+    private void backfill(Path archive) throws IOException, InterruptedException {
+        LogBackfillDocuments documents = new LogBackfillDocuments(objectMapper, options.indexPrefix(), options.zone());
+        long archiveEvents = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archive), 1 << 16), StandardCharsets.UTF_8), 1 << 16);
+             Output output = open(archive)) {
+            ByteArrayOutputStream batch = new ByteArrayOutputStream(1 << 20);
+            int batchEvents = 0;
+            StringBuilder plainEvent = new StringBuilder();
+            Boolean json = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (json == null) {
+                    json = line.startsWith("{");
+                }
+                boolean appended;
+                if (json) {
+                    appended = documents.appendJson(line, batch);
+                } else if (LogBackfillDocuments.PLAIN_EVENT.matcher(line).matches() || plainEvent.isEmpty()) {
+                    appended = !plainEvent.isEmpty() && appendPlain(documents, plainEvent, batch);
+                    plainEvent.setLength(0);
+                    plainEvent.append(line);
+                    if (!appended) {
+                        continue;
+                    }
+                } else {
+                    plainEvent.append('\n').append(line);
+                    continue;
+                }
+                if (!appended) {
+                    skippedLines.increment();
+                } else if (++batchEvents == options.batchSize()) {
+                    output.write(batch, batchEvents);
+                    archiveEvents += batchEvents;
+                    batch.reset();
+                    batchEvents = 0;
+                }
+            }
+            if (!plainEvent.isEmpty() && appendPlain(documents, plainEvent, batch)) {
+                batchEvents++;
+            }
+            if (batchEvents > 0) {
+                output.write(batch, batchEvents);
+                archiveEvents += batchEvents;
+            }
+        }
+        writeCheckpoint(archive, archiveEvents);
+        completedArchives.incrementAndGet();
+        log.debug("Backfilled {} events from {}", archiveEvents, archive);
+    }
+
+    private boolean appendPlain(LogBackfillDocuments documents, StringBuilder plainEvent, ByteArrayOutputStream batch) {
+        if (documents.appendPlain(plainEvent.toString(), batch)) {
+            return true;
+        }
+        skippedLines.increment();
+        return false;
+    }
+
+    private Output open(Path archive) throws IOException {
+        if (options.outputDirectory() == null) {
+            return this::post;
+        }
+        OutputStream file = Files.newOutputStream(options.outputDirectory().resolve(archive.getFileName() + ".bulk.ndjson"));
+        return new Output() {
+            @Override
+            public void write(ByteArrayOutputStream batch, int batchEvents) throws IOException {
+                batch.writeTo(file);
+                events.add(batchEvents);
+            }
+
+            @Override
+            public void close() throws IOException {
+                file.close();
+            }
+        };
+    }
+
+    /**
+     * Posts one batch, retrying the whole batch on 429 and 5xx, whether for the request or for single
+     * items. Retrying already created events is harmless: they come back as 409 and count as duplicates.
+     */
+    private void post(ByteArrayOutputStream batch, int batchEvents) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.elasticsearchUrl() + "/_bulk"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/x-ndjson")
+                .header("Content-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(ElasticsearchBulkLogSink.gzip(batch.toByteArray())))
+                .build();
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            boolean retryable = response.statusCode() == 429 || response.statusCode() >= 500;
+            if (!retryable && response.statusCode() / 100 != 2) {
+                throw new IOException("Bulk request rejected with status " + response.statusCode());
+            }
+            int created = 0;
+            int duplicated = 0;
+            int rejected = 0;
+            String firstRejection = null;
+            if (!retryable) {
+                for (JsonNode item : objectMapper.readTree(response.body()).path("items")) {
+                    JsonNode result = item.path("create");
+                    int status = result.path("status").asInt();
+                    if (status == 429 || status >= 500) {
+                        retryable = true;
+                    } else if (status == 409) {
+                        duplicated++;
+                    } else if (status / 100 == 2) {
+                        created++;
+                    } else {
+                        rejected++;
+                        firstRejection = firstRejection != null ? firstRejection : result.path("error").toString();
+                    }
+                }
+            }
+            if (!retryable || attempt == MAX_ATTEMPTS) {
+                if (retryable) {
+                    throw new IOException("Bulk request still throttled after " + MAX_ATTEMPTS + " attempts");
+                }
+                if (rejected > 0) {
+                    log.warn("Elasticsearch rejected {} of {} events, first error: {}", rejected, batchEvents, firstRejection);
+                }
+                events.add(created);
+                duplicates.add(duplicated);
+                return;
+            }
+            Thread.sleep(1000L << (attempt - 1));
+        }
+    }
+
+    private Set<String> readCheckpoint() throws IOException {
+        Set<String> done = new HashSet<>();
+        if (Files.exists(options.checkpoint())) {
+            for (String line : Files.readAllLines(options.checkpoint())) {
+                int lastTab = line.lastIndexOf('\t');
+                if (lastTab > 0) {
+                    done.add(line.substring(0, lastTab));
+                }
+            }
+        }
+        return done;
+    }
+
+    private synchronized void writeCheckpoint(Path archive, long archiveEvents) throws IOException {
+        Files.writeString(options.checkpoint(), checkpointKey(archive) + "\t" + archiveEvents + "\n",
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String checkpointKey(Path archive) {
+        try {
+            return archive.getFileName() + "\t" + Files.size(archive) + "\t" + Files.getLastModifiedTime(archive).toMillis();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long size(Path archive) {
+        try {
+            return Files.size(archive);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private long eventsPerSecond(long start) {
+        long elapsed = System.nanoTime() - start;
+        return elapsed == 0 ? 0 : events.sum() * 1_000_000_000L / elapsed;
+    }
+
+    private interface Output extends Closeable {
+
+        void write(ByteArrayOutputStream batch, int batchEvents) throws IOException, InterruptedException;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    record Result(int archives, int failedArchives, long events, long duplicates, long skippedLines,
+                  long eventsPerSecond) {
+    }
+}
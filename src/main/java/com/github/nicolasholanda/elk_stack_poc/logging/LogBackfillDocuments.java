@@ -0,0 +1,148 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns archived log lines into {@code _bulk} action and document pairs. Documents get the same
+ * treatment as in the filter block of {@code logstash.conf} ({@code level} renamed to {@code log_level},
+ * {@code is_error}, environment fields), so backfilled events look like live ones to the dashboards.
+ * <p>
+ * The index comes from the event's own timestamp and the {@code _id} is a hash of the raw event text.
+ * Actions are {@code create}, so an event that was already indexed, by an earlier or interrupted run
+ * or from an overlapping archive, is rejected as a duplicate instead of indexed twice. One instance
+ * per thread.
+ */
+class LogBackfillDocuments {
+
+    /**
+     * First line of an event written by the plain-text {@code FILE} appender pattern.
+     */
+    static final Pattern PLAIN_EVENT = Pattern.compile(
+            "^(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3}) \\[(.*?)] (TRACE|DEBUG|INFO|WARN|ERROR)\\s+(\\S+) - (.*)$");
+
+    private static final DateTimeFormatter INDEX_DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final DateTimeFormatter PLAIN_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final List<String> JSON_TAGS = List.of("spring-boot", "elk-stack-poc", "backfill");
+    private static final List<String> PLAIN_TAGS = List.of("spring-boot-plain", "elk-stack-poc", "backfill");
+
+    private final ObjectMapper objectMapper;
+    private final String indexPrefix;
+    private final ZoneId plainZone;
+    private final MessageDigest digest;
+
+    LogBackfillDocuments(ObjectMapper objectMapper, String indexPrefix, ZoneId plainZone) {
+        this.objectMapper = objectMapper;
+        this.indexPrefix = indexPrefix;
+        this.plainZone = plainZone;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Appends the pair for one {@code LogstashEncoder} line. False when the line is not a JSON event
+     * with an {@code @timestamp}.
+     */
+    boolean appendJson(String line, ByteArrayOutputStream bulk) {
+        JsonNode parsed;
+        try {
+            parsed = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+        if (!(parsed instanceof ObjectNode event) || !event.path("@timestamp").isTextual()) {
+            return false;
+        }
+        OffsetDateTime timestamp;
+        try {
+            timestamp = OffsetDateTime.parse(event.get("@timestamp").asText());
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+        enrich(event, JSON_TAGS);
+        append(bulk, timestamp, id(line), event);
+        return true;
+    }
+
+    /**
+     * Appends the pair for one event of the plain-text {@code FILE} appender: its first line plus any
+     * continuation lines such as a stack trace. False when the first line does not match the pattern.
+     */
+    boolean appendPlain(String record, ByteArrayOutputStream bulk) {
+        int firstLineEnd = record.indexOf('\n');
+        Matcher matcher = PLAIN_EVENT.matcher(firstLineEnd < 0 ? record : record.substring(0, firstLineEnd));
+        if (!matcher.matches()) {
+            return false;
+        }
+        OffsetDateTime timestamp = LocalDateTime.parse(matcher.group(1), PLAIN_TIMESTAMP)
+                .atZone(plainZone)
+                .toOffsetDateTime();
+        ObjectNode event = objectMapper.createObjectNode();
+        event.put("@timestamp", timestamp.toString());
+        event.put("thread_name", matcher.group(2));
+        event.put("log_level", matcher.group(3));
+        event.put("logger_name", matcher.group(4));
+        event.put("message", firstLineEnd < 0 ? matcher.group(5) : matcher.group(5) + record.substring(firstLineEnd));
+        enrich(event, PLAIN_TAGS);
+        append(bulk, timestamp, id(record), event);
+        return true;
+    }
+
+    /**
+     * The filter block of {@code logstash.conf} for one event: {@code level} renamed to {@code log_level},
+     * environment fields, {@code is_error} and the tags of the input it would have come through.
+     */
+    static void enrich(ObjectNode event, List<String> tags) {
+        JsonNode level = event.remove("level");
+        if (level != null) {
+            event.set("log_level", level);
+        }
+        event.put("environment", "poc");
+        event.put("application", "elk-stack-poc");
+        event.put("service_version", "0.0.1-SNAPSHOT");
+        String logLevel = event.path("log_level").asText();
+        event.put("is_error", String.valueOf("ERROR".equals(logLevel) || "WARN".equals(logLevel)));
+        tags.forEach(event.withArray("tags")::add);
+    }
+
+    private void append(ByteArrayOutputStream bulk, OffsetDateTime timestamp, String id, ObjectNode event) {
+        String index = indexPrefix + "-" + timestamp.withOffsetSameInstant(ZoneOffset.UTC).format(INDEX_DATE);
+        bulk.writeBytes(("{\"create\":{\"_index\":\"" + index + "\",\"_id\":\"" + id + "\"}}\n")
+                .getBytes(StandardCharsets.UTF_8));
+        try {
+            bulk.writeBytes(objectMapper.writeValueAsBytes(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        bulk.write('\n');
+    }
+
+    /**
+     * First 128 bits of the SHA-256 of the raw event, URL-safe base64.
+     */
+    String id(String raw) {
+        byte[] hash = digest.digest(raw.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+    }
+}
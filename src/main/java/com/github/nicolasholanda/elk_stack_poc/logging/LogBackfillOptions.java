@@ -0,0 +1,60 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.ZoneId;
+
+/**
+ * Command-line options of {@link LogBackfill}. Exactly one of {@code --out} and {@code --es} is required.
+ */
+record LogBackfillOptions(Path directory, String pattern, Path outputDirectory, URI elasticsearchUrl,
+                          String indexPrefix, int threads, int batchSize, Path checkpoint, ZoneId zone) {
+
+    static final String USAGE = """
+            Usage: backfill [--dir logs] [--pattern '*.gz'] (--out <directory> | --es <http://host:9200>)
+                            [--index-prefix elk-stack-poc] [--threads <cores>] [--batch-size 5000]
+                            [--checkpoint <dir>/.backfill-checkpoint] [--zone <zone of plain-text logs>]""";
+
+    static LogBackfillOptions parse(String... args) {
+        Path directory = Path.of("logs");
+        String pattern = "*.gz";
+        Path output = null;
+        URI elasticsearch = null;
+        String indexPrefix = "elk-stack-poc";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batchSize = 5000;
+        Path checkpoint = null;
+        ZoneId zone = ZoneId.systemDefault();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--dir" -> directory = Path.of(value);
+                case "--pattern" -> pattern = value;
+                case "--out" -> output = Path.of(value);
+                case "--es" -> elasticsearch = URI.create(value.replaceAll("/+$", ""));
+                case "--index-prefix" -> indexPrefix = value;
+                case "--threads" -> threads = positive(args[i], value);
+                case "--batch-size" -> batchSize = positive(args[i], value);
+                case "--checkpoint" -> checkpoint = Path.of(value);
+                case "--zone" -> zone = ZoneId.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if ((output == null) == (elasticsearch == null)) {
+            throw new IllegalArgumentException("Exactly one of --out and --es is required");
+        }
+        return new LogBackfillOptions(directory, pattern, output, elasticsearch, indexPrefix, threads, batchSize,
+                checkpoint != null ? checkpoint : directory.resolve(".backfill-checkpoint"), zone);
+    }
+
+    private static int positive(String option, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed < 1) {
+            throw new IllegalArgumentException(option + " must be positive");
+        }
+        return parsed;
+    }
+}
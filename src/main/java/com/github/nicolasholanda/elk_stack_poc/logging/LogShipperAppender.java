@@ -0,0 +1,331 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ships encoded events straight to Logstash (TCP, {@code json_lines}) or to the Elasticsearch
+ * {@code _bulk} API, batching by size and age on a dedicated thread. Batches the sink does not accept
+ * are spilled to a {@link DiskSpool} and replayed once the sink recovers, so logging threads never
+ * wait on the network. Events are dropped when the in-memory queue is full, whatever the state of the
+ * spool, when the spool is full, and when the sink refuses them for good.
+ * <p>
+ * The spool and the sink belong to the shipper thread, which closes them once it has drained the
+ * queue.
+ */
+public class LogShipperAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public enum SinkType {
+        TCP,
+        ELASTICSEARCH
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final LongAdder shippedEvents = new LongAdder();
+    private final LongAdder shippedBytes = new LongAdder();
+    private final LongAdder sentBatches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder spooledEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private volatile int lastBatchSize;
+
+    private Encoder<ILoggingEvent> encoder;
+    private SinkType sink = SinkType.TCP;
+    private String destination = "localhost:5000";
+    private String indexPrefix = "elk-stack-poc";
+    private int queueSize = 8192;
+    private int batchSize = 500;
+    private long maxBatchAgeMillis = 1000;
+    private int timeoutMillis = 5000;
+    private String spoolDirectory = "logs/spool";
+    private long maxSegmentBytes = 4 * 1024 * 1024;
+    private long maxSpoolBytes = 256 * 1024 * 1024;
+    private long maxFlushTimeMillis = 10_000;
+    private boolean virtualThread = false;
+
+    private MpscRingBuffer<ILoggingEvent> queue;
+    private LogSink logSink;
+    private DiskSpool spool;
+    private Thread shipper;
+    private volatile boolean running;
+    private long backoffMillis;
+    private long retryAtNanos;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for appender " + name);
+            return;
+        }
+        try {
+            spool = new DiskSpool(Path.of(spoolDirectory), maxSegmentBytes, maxSpoolBytes);
+            logSink = createSink();
+        } catch (IOException | RuntimeException e) {
+            addError("Could not start appender " + name, e);
+            return;
+        }
+        queue = new MpscRingBuffer<>(queueSize);
+        running = true;
+        shipper = (virtualThread ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true))
+                .name("log-shipper-" + name)
+                .start(this::shipLoop);
+        super.start();
+    }
+
+    private LogSink createSink() {
+        if (sink == SinkType.ELASTICSEARCH) {
+            return new ElasticsearchBulkLogSink(destination, indexPrefix, timeoutMillis);
+        }
+        int separator = destination.lastIndexOf(':');
+        return new TcpLogSink(destination.substring(0, separator),
+                Integer.parseInt(destination.substring(separator + 1)), timeoutMillis);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(shipper);
+        try {
+            shipper.join(maxFlushTimeMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (shipper.isAlive()) {
+            addWarn("Appender " + name + " did not flush within " + maxFlushTimeMillis
+                    + "ms, its shipper thread keeps running until the queue is drained");
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (!queue.offer(event)) {
+            droppedEvents.increment();
+        }
+    }
+
+    private void shipLoop() {
+        try {
+            drain();
+        } finally {
+            try {
+                spool.close();
+                logSink.close();
+            } catch (IOException e) {
+                addWarn("Could not close appender " + name + " cleanly", e);
+            }
+        }
+    }
+
+    private void drain() {
+        List<ILoggingEvent> batch = new ArrayList<>(batchSize);
+        long maxBatchAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchAgeMillis);
+        long batchStartedNanos = 0;
+        while (running || !queue.isEmpty()) {
+            ILoggingEvent event = queue.poll();
+            if (event != null) {
+                if (batch.isEmpty()) {
+                    batchStartedNanos = System.nanoTime();
+                }
+                batch.add(event);
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                }
+                continue;
+            }
+            if (!batch.isEmpty() && System.nanoTime() - batchStartedNanos >= maxBatchAgeNanos) {
+                flush(batch);
+            } else {
+                replaySpool();
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<ILoggingEvent> batch) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(batch.size() * 512);
+        for (ILoggingEvent event : batch) {
+            payload.writeBytes(encoder.encode(event));
+        }
+        int events = batch.size();
+        batch.clear();
+        lastBatchSize = events;
+
+        replaySpool();
+        if (spool.isEmpty() && trySend(payload.toByteArray(), events)) {
+            return;
+        }
+        toSpool(payload.toByteArray(), events);
+    }
+
+    private void replaySpool() {
+        if (spool.isEmpty() || isBackingOff()) {
+            return;
+        }
+        try {
+            Path segment = spool.oldestSegment();
+            if (segment == null) {
+                return;
+            }
+            byte[] ndjson = spool.read(segment);
+            if (trySend(ndjson, DiskSpool.countLines(ndjson))) {
+                spool.remove(segment);
+            }
+        } catch (IOException e) {
+            addWarn("Could not replay spool of appender " + name, e);
+        }
+    }
+
+    private boolean trySend(byte[] ndjson, long events) {
+        if (isBackingOff()) {
+            return false;
+        }
+        int rejected;
+        try {
+            rejected = logSink.send(ndjson);
+        } catch (IOException e) {
+            failedBatches.increment();
+            backoffMillis = backoffMillis == 0 ? 500 : Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+            addWarn("Sink of appender " + name + " failed, retrying in " + backoffMillis + "ms: " + e.getMessage());
+            return false;
+        }
+        backoffMillis = 0;
+        sentBatches.increment();
+        shippedEvents.add(events - rejected);
+        shippedBytes.add(ndjson.length);
+        if (rejected > 0) {
+            droppedEvents.add(rejected);
+            addWarn("Sink of appender " + name + " refused " + rejected + " of " + events + " events");
+        }
+        return true;
+    }
+
+    private void toSpool(byte[] ndjson, int events) {
+        try {
+            droppedEvents.add(spool.append(ndjson));
+            spooledEvents.add(events);
+        } catch (IOException e) {
+            droppedEvents.add(events);
+            addError("Could not spool " + events + " events of appender " + name, e);
+        }
+    }
+
+    private boolean isBackingOff() {
+        return backoffMillis > 0 && System.nanoTime() - retryAtNanos < 0;
+    }
+
+    public long getShippedEvents() {
+        return shippedEvents.sum();
+    }
+
+    public long getShippedBytes() {
+        return shippedBytes.sum();
+    }
+
+    public long getSentBatches() {
+        return sentBatches.sum();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    public long getSpooledEvents() {
+        return spooledEvents.sum();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public int getQueueDepth() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public long getSpoolBytes() {
+        return spool == null ? 0 : spool.sizeBytes();
+    }
+
+    public int getSpoolSegments() {
+        return spool == null ? 0 : spool.segmentCount();
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public void setSink(SinkType sink) {
+        this.sink = sink;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public void setIndexPrefix(String indexPrefix) {
+        this.indexPrefix = indexPrefix;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setMaxBatchAgeMillis(long maxBatchAgeMillis) {
+        this.maxBatchAgeMillis = maxBatchAgeMillis;
+    }
+
+    public void setTimeoutMillis(int timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void setSpoolDirectory(String spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    public void setMaxSegmentBytes(long maxSegmentBytes) {
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    public void setMaxSpoolBytes(long maxSpoolBytes) {
+        this.maxSpoolBytes = maxSpoolBytes;
+    }
+
+    public void setMaxFlushTimeMillis(long maxFlushTimeMillis) {
+        this.maxFlushTimeMillis = maxFlushTimeMillis;
+    }
+
+    public void setVirtualThread(boolean virtualThread) {
+        this.virtualThread = virtualThread;
+    }
+}
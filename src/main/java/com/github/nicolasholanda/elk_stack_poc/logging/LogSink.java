@@ -0,0 +1,17 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of {@link LogShipperAppender} batches. A batch is newline-delimited JSON, one encoded
+ * event per line. Implementations throw when the batch was not accepted so it can be spooled.
+ */
+interface LogSink extends Closeable {
+
+    /**
+     * Returns the number of events of the batch the destination refused for good, for example because
+     * they could not be parsed. Those are dropped; retrying them would fail again.
+     */
+    int send(byte[] ndjson) throws IOException;
+}
@@ -0,0 +1,145 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the internal counters of the custom appenders attached to logback loggers:
+ * {@link RingBufferAsyncAppender} under {@code logging.async.*} and {@link LogShipperAppender}
+ * under {@code logging.shipper.*}, {@link RecentLogAppender} under {@code logging.recent.*}. Appenders
+ * nested inside an async appender are found as well.
+ * Events dropped by a {@link SamplingTurboFilter} are counted as {@code logging.sampling.dropped}.
+ */
+@Component
+public class LogbackAppenderMetrics implements MeterBinder {
+
+    private static final List<Level> DROPPABLE_LEVELS = List.of(Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN);
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        for (Logger logger : context.getLoggerList()) {
+            bindAll(registry, logger.iteratorForAppenders());
+        }
+        for (TurboFilter filter : context.getTurboFilterList()) {
+            if (filter instanceof SamplingTurboFilter sampling) {
+                FunctionCounter.builder("logging.sampling.dropped", sampling, SamplingTurboFilter::getSampledOutCount)
+                        .tag("filter", String.valueOf(sampling.getName()))
+                        .description("Success-path events dropped by log sampling")
+                        .register(registry);
+            }
+        }
+    }
+
+    private void bindAll(MeterRegistry registry, Iterator<Appender<ILoggingEvent>> appenders) {
+        while (appenders.hasNext()) {
+            Appender<ILoggingEvent> appender = appenders.next();
+            if (appender instanceof RingBufferAsyncAppender async) {
+                bindAsync(registry, async);
+                bindAll(registry, async.iteratorForAppenders());
+            } else if (appender instanceof LogShipperAppender shipper) {
+                bindShipper(registry, shipper);
+            } else if (appender instanceof RecentLogAppender recent) {
+                bindRecent(registry, recent);
+            }
+        }
+    }
+
+    private void bindAsync(MeterRegistry registry, RingBufferAsyncAppender appender) {
+        String name = appender.getName();
+        Gauge.builder("logging.async.queue.depth", appender, RingBufferAsyncAppender::getQueueDepth)
+                .tag("appender", name)
+                .description("Events waiting for the log writer thread")
+                .register(registry);
+        Gauge.builder("logging.async.queue.capacity", appender, RingBufferAsyncAppender::getQueueCapacity)
+                .tag("appender", name)
+                .register(registry);
+        for (Level level : DROPPABLE_LEVELS) {
+            FunctionCounter.builder("logging.async.dropped", appender, a -> a.getDroppedCount(level))
+                    .tag("appender", name)
+                    .tag("level", level.levelStr)
+                    .description("Events dropped by the overflow policy")
+                    .register(registry);
+        }
+        FunctionTimer.builder("logging.async.enqueue", appender,
+                        RingBufferAsyncAppender::getEnqueuedCount,
+                        RingBufferAsyncAppender::getEnqueueTotalNanos,
+                        TimeUnit.NANOSECONDS)
+                .tag("appender", name)
+                .description("Time spent by the logging thread handing an event to the buffer")
+                .register(registry);
+    }
+
+    private void bindShipper(MeterRegistry registry, LogShipperAppender appender) {
+        String name = appender.getName();
+        FunctionCounter.builder("logging.shipper.events", appender, LogShipperAppender::getShippedEvents)
+                .tag("appender", name)
+                .tag("result", "shipped")
+                .register(registry);
+        FunctionCounter.builder("logging.shipper.events", appender, LogShipperAppender::getSpooledEvents)
+                .tag("appender", name)
+                .tag("result", "spooled")
+                .register(registry);
+        FunctionCounter.builder("logging.shipper.events", appender, LogShipperAppender::getDroppedEvents)
+                .tag("appender", name)
+                .tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("logging.shipper.batches", appender, LogShipperAppender::getSentBatches)
+                .tag("appender", name)
+                .tag("result", "sent")
+                .register(registry);
+        FunctionCounter.builder("logging.shipper.batches", appender, LogShipperAppender::getFailedBatches)
+                .tag("appender", name)
+                .tag("result", "failed")
+                .register(registry);
+        FunctionCounter.builder("logging.shipper.bytes", appender, LogShipperAppender::getShippedBytes)
+                .tag("appender", name)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("logging.shipper.batch.size", appender, LogShipperAppender::getLastBatchSize)
+                .tag("appender", name)
+                .description("Events in the most recent batch")
+                .register(registry);
+        Gauge.builder("logging.shipper.queue.depth", appender, LogShipperAppender::getQueueDepth)
+                .tag("appender", name)
+                .register(registry);
+        Gauge.builder("logging.shipper.spool.bytes", appender, LogShipperAppender::getSpoolBytes)
+                .tag("appender", name)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("logging.shipper.spool.segments", appender, LogShipperAppender::getSpoolSegments)
+                .tag("appender", name)
+                .register(registry);
+    }
+
+    private void bindRecent(MeterRegistry registry, RecentLogAppender appender) {
+        String name = appender.getName();
+        Gauge.builder("logging.recent.events", appender, a -> a.getIndex() == null ? 0 : a.getIndex().size())
+                .tag("appender", name)
+                .description("Events held by the in-process recent-log index")
+                .register(registry);
+        Gauge.builder("logging.recent.bytes", appender, a -> a.getIndex() == null ? 0 : a.getIndex().estimatedBytes())
+                .tag("appender", name)
+                .baseUnit("bytes")
+                .description("Estimated heap held by the recent-log index, capped at max-bytes")
+                .register(registry);
+    }
+}
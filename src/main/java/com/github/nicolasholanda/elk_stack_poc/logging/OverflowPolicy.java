@@ -0,0 +1,14 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+/**
+ * What {@link RingBufferAsyncAppender} does with an event when its buffer is under pressure.
+ * No policy ever drops ERROR events; they wait for free space instead.
+ */
+public enum OverflowPolicy {
+    /** Every event waits for free space. Nothing is dropped. */
+    BLOCK,
+    /** TRACE/DEBUG/INFO are dropped once the buffer passes the discarding threshold; WARN and ERROR wait. */
+    DROP_DEBUG_INFO,
+    /** Everything except ERROR is dropped while the buffer is full; ERROR waits. */
+    DROP_NON_ERROR
+}
@@ -0,0 +1,123 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import net.logstash.logback.marker.SingleFieldAppendingMarker;
+
+import java.util.Map;
+
+/**
+ * Keeps the most recent events in a {@link RecentLogIndex} for in-process triage through the
+ * {@code recentlogs} actuator endpoint, independent of Elasticsearch. Meant to be attached to a
+ * {@link RingBufferAsyncAppender}, so indexing happens on the log writer thread. Request id and route
+ * come from the MDC, user and order ids from {@code user_id}/{@code order_id} structured arguments.
+ */
+public class RecentLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    static final String REQUEST_ID = "request_id";
+    static final String USER_ID = "user_id";
+    static final String ORDER_ID = "order_id";
+
+    private boolean enabled = true;
+    private int maxEvents = 50_000;
+    private long maxBytes = 32L * 1024 * 1024;
+    private int maxMessageLength = 1000;
+
+    private volatile RecentLogIndex index;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (enabled) {
+            index = new RecentLogIndex(maxEvents, maxBytes);
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        index = null;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        RecentLogIndex target = index;
+        if (target == null) {
+            return;
+        }
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        String userId = null;
+        String orderId = null;
+        if (event.getArgumentArray() != null) {
+            for (Object argument : event.getArgumentArray()) {
+                if (argument instanceof SingleFieldAppendingMarker field) {
+                    if (USER_ID.equals(field.getFieldName())) {
+                        userId = value(field);
+                    } else if (ORDER_ID.equals(field.getFieldName())) {
+                        orderId = value(field);
+                    }
+                }
+            }
+        }
+        target.add(event.getInstant(), event.getLevel(), event.getLoggerName(), event.getThreadName(),
+                truncate(event.getFormattedMessage()), mdc.get(REQUEST_ID), mdc.get(SamplingTurboFilter.MDC_ROUTE),
+                userId, orderId, error(event.getThrowableProxy()));
+    }
+
+    /**
+     * The index, or null when disabled or stopped.
+     */
+    public RecentLogIndex getIndex() {
+        return index;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setMaxEvents(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public void setMaxMessageLength(int maxMessageLength) {
+        this.maxMessageLength = maxMessageLength;
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= maxMessageLength) {
+            return message;
+        }
+        return message.substring(0, maxMessageLength) + "...";
+    }
+
+    /**
+     * Value of a {@code v(...)} argument, which renders as just the value; {@code kv(...)} renders as
+     * {@code name=value}.
+     */
+    private static String value(SingleFieldAppendingMarker field) {
+        String rendered = field.toString();
+        String prefix = field.getFieldName() + "=";
+        return rendered.startsWith(prefix) ? rendered.substring(prefix.length()) : rendered;
+    }
+
+    private String error(IThrowableProxy throwable) {
+        if (throwable == null) {
+            return null;
+        }
+        return truncate(throwable.getMessage() == null
+                ? throwable.getClassName()
+                : throwable.getClassName() + ": " + throwable.getMessage());
+    }
+}
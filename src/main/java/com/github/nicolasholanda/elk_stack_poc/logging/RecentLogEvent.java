@@ -0,0 +1,12 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import java.time.Instant;
+
+/**
+ * A log event as kept by {@link RecentLogIndex}: the indexed fields plus the (possibly truncated)
+ * message and the class and message of an attached exception.
+ */
+public record RecentLogEvent(long sequence, Instant timestamp, String level, String logger, String thread,
+                             String message, String requestId, String route, String userId, String orderId,
+                             String error) {
+}
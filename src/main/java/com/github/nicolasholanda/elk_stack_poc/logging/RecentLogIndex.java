@@ -0,0 +1,320 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The most recent log events in a ring, with an inverted index from level, logger, request id, route,
+ * user id and order id to the sequence numbers of the events carrying them. Postings are kept in
+ * sequence order, so evicting the oldest event only ever removes the head of its postings, and a lookup
+ * by request id touches just the events of that request.
+ * <p>
+ * Memory is bounded by {@code maxEvents} and by an estimate of the bytes held by the events and their
+ * index entries: the oldest events are evicted as soon as either limit is exceeded. Written by a single
+ * appender thread, read concurrently by queries.
+ */
+public class RecentLogIndex {
+
+    /**
+     * Object headers, ring slot, timestamp and the index entries of one event.
+     */
+    static final int EVENT_OVERHEAD_BYTES = 192;
+
+    private final RecentLogEvent[] ring;
+    private final long maxBytes;
+    private final Postings[] byLevel = new Postings[Level.ERROR_INT / 10_000 + 1];
+    private final Map<String, Postings> byLogger = new HashMap<>();
+    private final Map<String, Postings> byRequestId = new HashMap<>();
+    private final Map<String, Postings> byRoute = new HashMap<>();
+    private final Map<String, Postings> byUserId = new HashMap<>();
+    private final Map<String, Postings> byOrderId = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long oldestSequence = 1;
+    private long nextSequence = 1;
+    private long bytes;
+
+    public RecentLogIndex(int maxEvents, long maxBytes) {
+        this.ring = new RecentLogEvent[maxEvents];
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < byLevel.length; i++) {
+            byLevel[i] = new Postings(null);
+        }
+    }
+
+    /**
+     * Stores an event under the next sequence number. Values that are already indexed are replaced by
+     * the indexed instance, so a request id or user id repeated across events is held once.
+     */
+    public void add(Instant timestamp, Level level, String logger, String thread, String message, String requestId,
+                    String route, String userId, String orderId, String error) {
+        lock.writeLock().lock();
+        try {
+            long sequence = nextSequence++;
+            if (sequence - oldestSequence >= ring.length) {
+                evictOldest();
+            }
+            RecentLogEvent event = new RecentLogEvent(sequence, timestamp, level.levelStr,
+                    post(byLogger, logger, sequence), thread, message, post(byRequestId, requestId, sequence),
+                    post(byRoute, route, sequence), post(byUserId, userId, sequence),
+                    post(byOrderId, orderId, sequence), error);
+            byLevel[levelSlot(level.levelStr)].add(sequence);
+            ring[slot(sequence)] = event;
+            bytes += size(event);
+            while (bytes > maxBytes && oldestSequence < sequence) {
+                evictOldest();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<RecentLogEvent> query(RecentLogQuery query) {
+        lock.readLock().lock();
+        try {
+            List<RecentLogEvent> events = new ArrayList<>(Math.min(query.limit(), 256));
+            Candidates candidates = candidates(query);
+            // Writer order is close to timestamp order; a second of slack covers the difference
+            long stopBefore = query.from() == null ? Long.MIN_VALUE : query.from().toEpochMilli() - 1_000;
+            for (long sequence = candidates.next(); sequence > 0 && events.size() < query.limit(); sequence = candidates.next()) {
+                RecentLogEvent event = ring[slot(sequence)];
+                if (candidates.scansAll() && event.timestamp().toEpochMilli() < stopBefore) {
+                    break;
+                }
+                if (matches(event, query)) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return nextSequence - oldestSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long evicted() {
+        lock.readLock().lock();
+        try {
+            return oldestSequence - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Candidates candidates(RecentLogQuery query) {
+        Postings best = null;
+        List<Map<String, Postings>> indexes = indexes();
+        String[] values = {query.logger(), query.requestId(), query.route(), query.userId(), query.orderId()};
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            Postings postings = indexes.get(i).get(values[i]);
+            if (postings == null) {
+                return Candidates.range(1, 0);
+            }
+            if (best == null || postings.size < best.size) {
+                best = postings;
+            }
+        }
+        if (best != null) {
+            return Candidates.postings(best);
+        }
+        if (query.level() != null && query.level().toInt() > Level.INFO_INT) {
+            List<Postings> levels = new ArrayList<>();
+            for (int slot = levelSlot(query.level().levelStr); slot < byLevel.length; slot++) {
+                levels.add(byLevel[slot]);
+            }
+            return Candidates.postings(levels.toArray(Postings[]::new));
+        }
+        return Candidates.range(oldestSequence, nextSequence - 1);
+    }
+
+    private static boolean matches(RecentLogEvent event, RecentLogQuery query) {
+        return (query.level() == null || Level.toLevel(event.level()).isGreaterOrEqual(query.level()))
+                && (query.logger() == null || query.logger().equals(event.logger()))
+                && (query.requestId() == null || query.requestId().equals(event.requestId()))
+                && (query.route() == null || query.route().equals(event.route()))
+                && (query.userId() == null || query.userId().equals(event.userId()))
+                && (query.orderId() == null || query.orderId().equals(event.orderId()))
+                && (query.text() == null || (event.message() != null && event.message().contains(query.text())))
+                && (query.from() == null || !event.timestamp().isBefore(query.from()))
+                && (query.to() == null || event.timestamp().isBefore(query.to()));
+    }
+
+    private void evictOldest() {
+        long sequence = oldestSequence++;
+        int slot = slot(sequence);
+        RecentLogEvent event = ring[slot];
+        ring[slot] = null;
+        bytes -= size(event);
+        byLevel[levelSlot(event.level())].removeHead(sequence);
+        unpost(byLogger, event.logger(), sequence);
+        unpost(byRequestId, event.requestId(), sequence);
+        unpost(byRoute, event.route(), sequence);
+        unpost(byUserId, event.userId(), sequence);
+        unpost(byOrderId, event.orderId(), sequence);
+    }
+
+    private static String post(Map<String, Postings> index, String value, long sequence) {
+        if (value == null) {
+            return null;
+        }
+        Postings postings = index.computeIfAbsent(value, Postings::new);
+        postings.add(sequence);
+        return postings.key;
+    }
+
+    private static void unpost(Map<String, Postings> index, String value, long sequence) {
+        if (value == null) {
+            return;
+        }
+        Postings postings = index.get(value);
+        if (postings != null && postings.removeHead(sequence) && postings.size == 0) {
+            index.remove(value);
+        }
+    }
+
+    private List<Map<String, Postings>> indexes() {
+        return List.of(byLogger, byRequestId, byRoute, byUserId, byOrderId);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+
+    private static int levelSlot(String level) {
+        return Level.toLevel(level).toInt() / 10_000;
+    }
+
+    /**
+     * Estimated heap held by one event. Logger, level, thread and route strings are shared between
+     * events and not counted.
+     */
+    static long size(RecentLogEvent event) {
+        return EVENT_OVERHEAD_BYTES + length(event.message()) + length(event.error()) + length(event.requestId())
+                + length(event.userId()) + length(event.orderId());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Sequence numbers of the events carrying one value, oldest first, in a growable circular array.
+     */
+    private static final class Postings {
+
+        final String key;
+        long[] sequences = new long[4];
+        int head;
+        int size;
+
+        Postings(String key) {
+            this.key = key;
+        }
+
+        void add(long sequence) {
+            if (size == sequences.length) {
+                long[] grown = new long[sequences.length * 2];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = sequences[(head + i) % sequences.length];
+                }
+                sequences = grown;
+                head = 0;
+            }
+            sequences[(head + size) % sequences.length] = sequence;
+            size++;
+        }
+
+        boolean removeHead(long sequence) {
+            if (size == 0 || sequences[head] != sequence) {
+                return false;
+            }
+            head = (head + 1) % sequences.length;
+            size--;
+            return true;
+        }
+
+        long get(int index) {
+            return sequences[(head + index) % sequences.length];
+        }
+    }
+
+    /**
+     * Candidate sequence numbers, newest first: merged postings, or every sequence in a range.
+     */
+    private static final class Candidates {
+
+        private final Postings[] postings;
+        private final int[] remaining;
+        private final long oldest;
+        private long next;
+
+        private Candidates(Postings[] postings, long oldest, long newest) {
+            this.postings = postings;
+            this.remaining = new int[postings == null ? 0 : postings.length];
+            for (int i = 0; i < remaining.length; i++) {
+                remaining[i] = postings[i].size;
+            }
+            this.oldest = oldest;
+            this.next = newest;
+        }
+
+        static Candidates postings(Postings... postings) {
+            return new Candidates(postings, 0, 0);
+        }
+
+        static Candidates range(long oldest, long newest) {
+            return new Candidates(null, oldest, newest);
+        }
+
+        boolean scansAll() {
+            return postings == null;
+        }
+
+        /**
+         * Next candidate, or 0 when there is none.
+         */
+        long next() {
+            if (postings == null) {
+                return next >= oldest && next > 0 ? next-- : 0;
+            }
+            int newest = -1;
+            for (int i = 0; i < postings.length; i++) {
+                if (remaining[i] > 0 && (newest < 0
+                        || postings[i].get(remaining[i] - 1) > postings[newest].get(remaining[newest] - 1))) {
+                    newest = i;
+                }
+            }
+            if (newest < 0) {
+                return 0;
+            }
+            remaining[newest]--;
+            return postings[newest].get(remaining[newest]);
+        }
+    }
+}
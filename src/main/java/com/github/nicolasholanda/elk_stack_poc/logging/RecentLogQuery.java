@@ -0,0 +1,13 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+
+import java.time.Instant;
+
+/**
+ * Filters of a {@link RecentLogIndex} lookup; null means no restriction. {@code level} is a minimum
+ * level, {@code text} a case-sensitive substring of the message. Results are newest first.
+ */
+public record RecentLogQuery(Level level, String logger, String requestId, String route, String userId,
+                             String orderId, String text, Instant from, Instant to, int limit) {
+}
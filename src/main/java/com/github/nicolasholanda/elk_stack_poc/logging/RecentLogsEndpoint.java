@@ -0,0 +1,81 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * {@code GET /actuator/recentlogs}: queries the events held by the {@link RecentLogAppender}, newest
+ * first. {@code from}/{@code to} are ISO-8601 instants, {@code level} a minimum level.
+ */
+@Component
+@Endpoint(id = "recentlogs")
+public class RecentLogsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
+    @ReadOperation
+    public RecentLogs query(@Nullable String level, @Nullable String logger, @Nullable String requestId,
+                            @Nullable String route, @Nullable String userId, @Nullable String orderId,
+                            @Nullable String text, @Nullable Instant from, @Nullable Instant to,
+                            @Nullable Integer limit) {
+        RecentLogIndex index = findIndex();
+        if (index == null) {
+            return new RecentLogs(false, 0, 0, 0, List.of());
+        }
+        Level minimumLevel = level == null ? null : Level.toLevel(level, null);
+        if (level != null && minimumLevel == null) {
+            throw new InvalidEndpointRequestException("Unknown level " + level, "Unknown level");
+        }
+        RecentLogQuery query = new RecentLogQuery(minimumLevel, logger,
+                requestId, route, userId, orderId, text, from, to,
+                Math.clamp(limit == null ? DEFAULT_LIMIT : limit, 1, MAX_LIMIT));
+        return new RecentLogs(true, index.size(), index.estimatedBytes(), index.evicted(), index.query(query));
+    }
+
+    private static RecentLogIndex findIndex() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return null;
+        }
+        for (Logger logger : context.getLoggerList()) {
+            RecentLogAppender appender = find(logger.iteratorForAppenders());
+            if (appender != null) {
+                return appender.getIndex();
+            }
+        }
+        return null;
+    }
+
+    static RecentLogAppender find(Iterator<Appender<ILoggingEvent>> appenders) {
+        while (appenders.hasNext()) {
+            Appender<ILoggingEvent> appender = appenders.next();
+            if (appender instanceof RecentLogAppender recent) {
+                return recent;
+            }
+            if (appender instanceof RingBufferAsyncAppender async) {
+                RecentLogAppender nested = find(async.iteratorForAppenders());
+                if (nested != null) {
+                    return nested;
+                }
+            }
+        }
+        return null;
+    }
+
+    public record RecentLogs(boolean enabled, long indexedEvents, long estimatedBytes, long evictedEvents,
+                             List<RecentLogEvent> events) {
+    }
+}
@@ -0,0 +1,243 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands events to the wrapped appenders from a dedicated writer thread, so request threads only pay
+ * for an enqueue into a bounded lock-free ring buffer. What happens when that buffer fills up is
+ * controlled by {@link OverflowPolicy}. Stopping the appender drains everything still buffered.
+ */
+public class RingBufferAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int FULL_SPINS = 100;
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final Map<Level, LongAdder> dropped = Map.of(
+            Level.TRACE, new LongAdder(),
+            Level.DEBUG, new LongAdder(),
+            Level.INFO, new LongAdder(),
+            Level.WARN, new LongAdder());
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder enqueueNanos = new LongAdder();
+
+    private int bufferSize = 8192;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_DEBUG_INFO;
+    private int discardingThresholdPercent = 80;
+    private long maxFlushTimeMillis = 0;
+    private boolean includeCallerData = false;
+    private boolean virtualThread = false;
+
+    private MpscRingBuffer<ILoggingEvent> buffer;
+    private int discardingThreshold;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile boolean writerParked;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No appenders attached to " + name);
+            return;
+        }
+        buffer = new MpscRingBuffer<>(bufferSize);
+        discardingThreshold = buffer.capacity() * discardingThresholdPercent / 100;
+        running = true;
+        writer = (virtualThread ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true))
+                .name("log-writer-" + name)
+                .start(this::drainLoop);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(maxFlushTimeMillis);
+            if (writer.isAlive()) {
+                addWarn("Writer thread did not finish within " + maxFlushTimeMillis + "ms, "
+                        + buffer.size() + " events were not flushed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addWarn("Interrupted while flushing " + buffer.size() + " buffered events", e);
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        long start = System.nanoTime();
+        if (shouldDrop(event)) {
+            countDrop(event);
+            return;
+        }
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        if (!buffer.offer(event) && !enqueueOnFull(event)) {
+            countDrop(event);
+            return;
+        }
+        enqueueNanos.add(System.nanoTime() - start);
+        enqueued.increment();
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private boolean shouldDrop(ILoggingEvent event) {
+        return overflowPolicy == OverflowPolicy.DROP_DEBUG_INFO
+                && event.getLevel().toInt() <= Level.INFO_INT
+                && buffer.size() >= discardingThreshold;
+    }
+
+    private boolean enqueueOnFull(ILoggingEvent event) {
+        boolean mayDrop = overflowPolicy == OverflowPolicy.DROP_NON_ERROR && event.getLevel().toInt() < Level.ERROR_INT;
+        if (mayDrop) {
+            return false;
+        }
+        int spins = 0;
+        while (!buffer.offer(event)) {
+            if (!running) {
+                return false;
+            }
+            if (writerParked) {
+                LockSupport.unpark(writer);
+            }
+            if (++spins < FULL_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            }
+        }
+        return true;
+    }
+
+    private void countDrop(ILoggingEvent event) {
+        LongAdder counter = dropped.get(event.getLevel());
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            ILoggingEvent event = buffer.poll();
+            if (event != null) {
+                appenders.appendLoopOnAppenders(event);
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            writerParked = true;
+            if (buffer.isEmpty() && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            writerParked = false;
+        }
+    }
+
+    public int getQueueDepth() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    public int getQueueCapacity() {
+        return buffer == null ? 0 : buffer.capacity();
+    }
+
+    public long getDroppedCount(Level level) {
+        LongAdder counter = dropped.get(level);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public double getEnqueueTotalNanos() {
+        return enqueueNanos.sum();
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void setDiscardingThresholdPercent(int discardingThresholdPercent) {
+        this.discardingThresholdPercent = discardingThresholdPercent;
+    }
+
+    public void setMaxFlushTimeMillis(long maxFlushTimeMillis) {
+        this.maxFlushTimeMillis = maxFlushTimeMillis;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public void setVirtualThread(boolean virtualThread) {
+        this.virtualThread = virtualThread;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
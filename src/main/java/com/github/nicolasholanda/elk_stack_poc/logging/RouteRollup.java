@@ -0,0 +1,141 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
+
+/**
+ * Aggregates every request per route and method, sampled or not, and logs one compact summary event
+ * per active route each interval ({@code log_type: route_rollup}) with the request count, error counts
+ * and a latency summary. The dashboards read throughput and latency from these events, so they stay
+ * exact while {@link SamplingTurboFilter} drops most of the per-request lines.
+ */
+@Slf4j
+@Component
+public class RouteRollup {
+
+    public static final String LOG_TYPE = "route_rollup";
+
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 3, 4, 5, 7, 10, 15, 20, 25, 30, 40, 50, 75, 100,
+            150, 200, 250, 300, 400, 500, 750, 1000, 1500, 2000, 3000, 5000, 10000, Long.MAX_VALUE};
+
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+
+    public void record(String route, String method, int status, long durationNanos) {
+        routes.computeIfAbsent(method + " " + route, key -> new RouteStats(route, method))
+                .record(status, durationNanos);
+    }
+
+    @Scheduled(fixedRateString = "${logging.sampling.rollup-interval:60s}",
+            initialDelayString = "${logging.sampling.rollup-interval:60s}")
+    public void flush() {
+        for (RouteStats stats : routes.values()) {
+            stats.flush();
+        }
+    }
+
+    private static int bucket(long durationMillis) {
+        int index = Arrays.binarySearch(BUCKET_BOUNDS_MILLIS, durationMillis);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static final class RouteStats {
+
+        private final String route;
+        private final String method;
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length);
+
+        // Totals at the previous flush; only touched by the scheduler thread
+        private long lastServerErrors;
+        private long lastClientErrors;
+        private long lastTotalNanos;
+        private final long[] lastBuckets = new long[BUCKET_BOUNDS_MILLIS.length];
+
+        private RouteStats(String route, String method) {
+            this.route = route;
+            this.method = method;
+        }
+
+        void record(int status, long durationNanos) {
+            buckets.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMillis(durationNanos)));
+            totalNanos.add(durationNanos);
+            if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+        }
+
+        void flush() {
+            long[] interval = new long[lastBuckets.length];
+            long count = 0;
+            for (int i = 0; i < interval.length; i++) {
+                long total = buckets.get(i);
+                interval[i] = total - lastBuckets[i];
+                lastBuckets[i] = total;
+                count += interval[i];
+            }
+            long serverErrorTotal = serverErrors.sum();
+            long clientErrorTotal = clientErrors.sum();
+            long nanosTotal = totalNanos.sum();
+            long errors = serverErrorTotal - lastServerErrors;
+            long clientErrorCount = clientErrorTotal - lastClientErrors;
+            long nanos = nanosTotal - lastTotalNanos;
+            lastServerErrors = serverErrorTotal;
+            lastClientErrors = clientErrorTotal;
+            lastTotalNanos = nanosTotal;
+            if (count == 0) {
+                return;
+            }
+
+            log.info("Route rollup {} {}: {} requests, {} errors, p99 {}ms",
+                    v("http_method", method), v("http_route", route), v("request_count", count),
+                    v("error_count", errors), v("latency_p99_ms", percentile(interval, count, 0.99)),
+                    v("client_error_count", clientErrorCount),
+                    v("latency_avg_ms", TimeUnit.NANOSECONDS.toMillis(nanos / count)),
+                    v("latency_p50_ms", percentile(interval, count, 0.50)),
+                    v("latency_p95_ms", percentile(interval, count, 0.95)),
+                    v("latency_max_ms", max(interval)),
+                    v("log_type", LOG_TYPE));
+        }
+
+        // Upper bound of the bucket holding the requested rank
+        private static long percentile(long[] interval, long count, double quantile) {
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < interval.length; i++) {
+                seen += interval[i];
+                if (seen >= rank) {
+                    return boundOf(i);
+                }
+            }
+            return boundOf(interval.length - 1);
+        }
+
+        private static long max(long[] interval) {
+            for (int i = interval.length - 1; i >= 0; i--) {
+                if (interval[i] > 0) {
+                    return boundOf(i);
+                }
+            }
+            return 0;
+        }
+
+        private static long boundOf(int bucket) {
+            // The overflow bucket has no upper bound; report the largest finite one
+            return bucket == BUCKET_BOUNDS_MILLIS.length - 1 ? BUCKET_BOUNDS_MILLIS[bucket - 1] : BUCKET_BOUNDS_MILLIS[bucket];
+        }
+    }
+}
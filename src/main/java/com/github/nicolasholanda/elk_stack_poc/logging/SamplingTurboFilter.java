@@ -0,0 +1,109 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples repetitive INFO/DEBUG events of request handling. Each logger and HTTP route (taken from
+ * the {@code http_route} MDC key) may log {@code unsampledPerSecond} events per second unchanged.
+ * Above that, only one in {@code 1 / sampleRate} events is kept, so quiet routes keep full detail
+ * while hot routes are thinned out. WARN and ERROR, events outside the configured loggers and
+ * events logged outside a request are never sampled. Exact per-route counts and latencies come from
+ * the {@link RouteRollup} events.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    public static final String MDC_ROUTE = "http_route";
+
+    private final Map<Logger, Map<String, AtomicLong>> windows = new ConcurrentHashMap<>();
+    private final LongAdder sampledOut = new LongAdder();
+
+    private String[] loggers = new String[0];
+    private int unsampledPerSecond = 10;
+    private double sampleRate = 0.1;
+    private boolean enabled = true;
+    private long stride;
+
+    @Override
+    public void start() {
+        if (sampleRate <= 0 || sampleRate > 1) {
+            addError("sampleRate must be in (0, 1]: " + sampleRate);
+            return;
+        }
+        stride = Math.round(1 / sampleRate);
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!enabled || format == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        String route = MDC.get(MDC_ROUTE);
+        if (route == null) {
+            return FilterReply.NEUTRAL;
+        }
+        long count = increment(windows.computeIfAbsent(logger, l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(route, r -> new AtomicLong()));
+        if (count <= unsampledPerSecond || (count - unsampledPerSecond) % stride == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+
+    private boolean isSampled(String loggerName) {
+        for (String prefix : loggers) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Upper 32 bits hold the epoch second of the window, lower 32 bits the events seen in it
+    private static long increment(AtomicLong window) {
+        long second = System.currentTimeMillis() / 1000;
+        while (true) {
+            long current = window.get();
+            long next = current >>> 32 == second ? current + 1 : second << 32 | 1;
+            if (window.compareAndSet(current, next)) {
+                return next & 0xFFFFFFFFL;
+            }
+        }
+    }
+
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    public void setUnsampledPerSecond(int unsampledPerSecond) {
+        this.unsampledPerSecond = unsampledPerSecond;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
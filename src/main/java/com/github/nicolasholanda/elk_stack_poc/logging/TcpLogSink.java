@@ -0,0 +1,62 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Writes batches to a Logstash {@code tcp} input using the {@code json_lines} codec. The connection
+ * is kept open between batches and re-established after a failure.
+ */
+class TcpLogSink implements LogSink {
+
+    private final String host;
+    private final int port;
+    private final int connectTimeoutMillis;
+    private Socket socket;
+    private OutputStream out;
+
+    TcpLogSink(String host, int port, int connectTimeoutMillis) {
+        this.host = host;
+        this.port = port;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    @Override
+    public int send(byte[] ndjson) throws IOException {
+        try {
+            if (socket == null) {
+                connect();
+            }
+            out.write(ndjson);
+            out.flush();
+            return 0;
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void connect() throws IOException {
+        Socket connected = new Socket();
+        connected.setTcpNoDelay(true);
+        connected.setKeepAlive(true);
+        connected.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+        socket = connected;
+        out = connected.getOutputStream();
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already failing, nothing left to release
+            }
+        }
+        socket = null;
+        out = null;
+    }
+}
@@ -0,0 +1,6 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import java.util.List;
+
+public record AggregateCheck(boolean consistent, List<String> mismatches) {
+}
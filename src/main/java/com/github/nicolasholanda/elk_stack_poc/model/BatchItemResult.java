@@ -0,0 +1,25 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+/**
+ * Outcome of one element of a bulk request, reported at the element's position in the input array.
+ */
+public record BatchItemResult(int index, Status status, Long id, String orderNumber, String error) {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+
+    public static BatchItemResult created(int index, Order order) {
+        return new BatchItemResult(index, Status.CREATED, order.getId(), order.getOrderNumber(), null);
+    }
+
+    public static BatchItemResult invalid(int index, String error) {
+        return new BatchItemResult(index, Status.INVALID, null, null, error);
+    }
+
+    public static BatchItemResult failed(int index, String error) {
+        return new BatchItemResult(index, Status.FAILED, null, null, error);
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import java.util.List;
+
+public record BatchResult(int created, int rejected, List<BatchItemResult> items) {
+
+    public static BatchResult of(List<BatchItemResult> items) {
+        int created = (int) items.stream()
+                .filter(item -> item.status() == BatchItemResult.Status.CREATED)
+                .count();
+        return new BatchResult(created, items.size() - created, items);
+    }
+}
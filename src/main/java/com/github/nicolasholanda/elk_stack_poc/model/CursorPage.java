@@ -0,0 +1,9 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import java.util.List;
+
+/**
+ * One keyset page of results. {@code next} is null when there are no more rows.
+ */
+public record CursorPage<T>(List<T> items, String next) {
+}
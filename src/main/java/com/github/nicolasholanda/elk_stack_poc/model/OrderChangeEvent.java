@@ -0,0 +1,54 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * One committed change to an order, as delivered by {@code GET /api/orders/changes}. The journal assigns
+ * {@code sequence} in commit order; a client resumes after the last sequence it received. A {@code RESET}
+ * means the client fell too far behind and missed events: it has to re-read the orders it cares about and
+ * resume after the sequence of the reset. {@code previousTotalAmount} is only set on {@code UPDATED}.
+ */
+public record OrderChangeEvent(long sequence, Type type, Long orderId, Long userId, String orderNumber,
+                               Order.OrderStatus status, Order.OrderStatus previousStatus,
+                               BigDecimal totalAmount, BigDecimal previousTotalAmount, Long version,
+                               LocalDateTime createdAt, Instant occurredAt) {
+
+    public enum Type {
+        CREATED, UPDATED, STATUS_CHANGED, DELETED, RESET
+    }
+
+    public static OrderChangeEvent created(Order order) {
+        return of(Type.CREATED, order, order.getStatus(), null, null);
+    }
+
+    public static OrderChangeEvent updated(Order order, BigDecimal previousTotalAmount) {
+        return of(Type.UPDATED, order, order.getStatus(), null, previousTotalAmount);
+    }
+
+    public static OrderChangeEvent statusChanged(Order order, Order.OrderStatus previousStatus) {
+        return of(Type.STATUS_CHANGED, order, order.getStatus(), previousStatus, null);
+    }
+
+    public static OrderChangeEvent deleted(Order order) {
+        return of(Type.DELETED, order, null, order.getStatus(), null);
+    }
+
+    public static OrderChangeEvent reset(long resumeAfter) {
+        return new OrderChangeEvent(resumeAfter, Type.RESET, null, null, null, null, null, null, null, null, null,
+                Instant.now());
+    }
+
+    public OrderChangeEvent withSequence(long sequence) {
+        return new OrderChangeEvent(sequence, type, orderId, userId, orderNumber, status, previousStatus,
+                totalAmount, previousTotalAmount, version, createdAt, occurredAt);
+    }
+
+    private static OrderChangeEvent of(Type type, Order order, Order.OrderStatus status, Order.OrderStatus previousStatus,
+                                       BigDecimal previousTotalAmount) {
+        return new OrderChangeEvent(0, type, order.getId(), order.getUserId(), order.getOrderNumber(), status,
+                previousStatus, order.getTotalAmount(), previousTotalAmount, order.getVersion(), order.getCreatedAt(),
+                Instant.now());
+    }
+}
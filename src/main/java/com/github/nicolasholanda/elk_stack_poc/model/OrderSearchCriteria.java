@@ -0,0 +1,24 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Filters of an order search; every given filter has to match. {@code status} matches any of the given
+ * statuses, the amount bounds are inclusive, {@code *From} is inclusive and {@code *To} exclusive, and
+ * {@code descriptionPrefix} matches descriptions starting with it (case-sensitive).
+ */
+public record OrderSearchCriteria(
+        Long userId,
+        Set<Order.OrderStatus> status,
+        BigDecimal minAmount,
+        BigDecimal maxAmount,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo,
+        String descriptionPrefix) {
+}
@@ -0,0 +1,6 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import java.math.BigDecimal;
+
+public record OrderTotals(long orderCount, BigDecimal totalAmount) {
+}
@@ -0,0 +1,9 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One group of a {@code GROUP BY} over orders; {@code key} is the status, user id or day.
+ */
+public record OrderTotalsRow(Object key, Long orderCount, BigDecimal totalAmount) {
+}
@@ -0,0 +1,20 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of an {@link Order}, selected straight into a record so no managed entity is
+ * created. Serializes exactly like the entity.
+ */
+public record OrderView(
+        Long id,
+        Long userId,
+        String orderNumber,
+        Order.OrderStatus status,
+        BigDecimal totalAmount,
+        String description,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version) {
+}
@@ -0,0 +1,24 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves every order matching all given filters to {@code targetStatus}. {@code statuses} restricts the
+ * source statuses, {@code createdFrom} is inclusive and {@code createdTo} exclusive. At least one filter
+ * is required.
+ */
+public record StatusTransitionRequest(
+        Order.OrderStatus targetStatus,
+        Set<Order.OrderStatus> statuses,
+        LocalDateTime createdFrom,
+        LocalDateTime createdTo,
+        Long userId,
+        List<Long> ids) {
+
+    public boolean hasFilter() {
+        return (statuses != null && !statuses.isEmpty()) || createdFrom != null || createdTo != null
+                || userId != null || ids != null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.nicolasholanda.elk_stack_poc.model;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Number of orders moved to {@code targetStatus}, per source status. Requested source statuses the
+ * state machine does not allow to move to the target are listed in {@code illegalStatuses}.
+ */
+public record StatusTransitionResult(
+        Order.OrderStatus targetStatus,
+        int transitioned,
+        Map<Order.OrderStatus, Integer> transitionedByStatus,
+        Set<Order.OrderStatus> illegalStatuses) {
+}
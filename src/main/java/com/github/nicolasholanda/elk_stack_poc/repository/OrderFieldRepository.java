@@ -0,0 +1,21 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.KeysetCursor;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface OrderFieldRepository {
+
+    SparseFieldQuery ORDER_FIELDS = new SparseFieldQuery("Order", List.of(
+            "id", "userId", "orderNumber", "status", "totalAmount", "description", "createdAt", "updatedAt", "version"));
+
+    List<Map<String, Object>> findFieldsByUserId(Long userId, Set<String> fields);
+
+    /**
+     * Keyset page on (createdAt, id) after {@code after}, or the first page when it is null.
+     */
+    List<Map<String, Object>> findFieldsPage(KeysetCursor after, Set<String> fields, Limit limit);
+}
@@ -1,15 +1,87 @@
 package com.github.nicolasholanda.elk_stack_poc.repository;
 
 import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderTotalsRow;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderView;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderFieldRepository, OrderSearchRepository,
+        OrderWriteRepository {
+    @Transactional(readOnly = true)
     Optional<Order> findByOrderNumber(String orderNumber);
     List<Order> findByUserId(Long userId);
-}
 
+    @Transactional(readOnly = true)
+    @Query("select new com.github.nicolasholanda.elk_stack_poc.model.OrderView(o.id, o.userId, o.orderNumber, o.status,"
+            + " o.totalAmount, o.description, o.createdAt, o.updatedAt, o.version) from Order o where o.userId = :userId order by o.id")
+    List<OrderView> findViewsByUserId(Long userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Order> findAllByOrderByCreatedAtAscIdAsc(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select o from Order o where o.createdAt > :createdAt or (o.createdAt = :createdAt and o.id > :id) order by o.createdAt, o.id")
+    List<Order> findPageAfter(LocalDateTime createdAt, Long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o order by o.createdAt, o.id")
+    Stream<Order> streamAllOrdered();
+
+    @Query("select o.id from Order o where o.status = :status and o.id > :afterId"
+            + " and (:userId is null or o.userId = :userId)"
+            + " and (:createdFrom is null or o.createdAt >= :createdFrom)"
+            + " and (:createdTo is null or o.createdAt < :createdTo)"
+            + " order by o.id")
+    List<Long> findIdsByStatusAfter(Order.OrderStatus status, Long afterId, Long userId,
+                                    LocalDateTime createdFrom, LocalDateTime createdTo, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id in :ids and o.status = :status"
+            + " and (:userId is null or o.userId = :userId)"
+            + " and (:createdFrom is null or o.createdAt >= :createdFrom)"
+            + " and (:createdTo is null or o.createdAt < :createdTo)")
+    List<Order> lockForTransition(Collection<Long> ids, Order.OrderStatus status, Long userId,
+                                  LocalDateTime createdFrom, LocalDateTime createdTo);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :targetStatus, o.updatedAt = :updatedAt, o.version = o.version + 1"
+            + " where o.id in :ids and o.status = :status"
+            + " and (:userId is null or o.userId = :userId)"
+            + " and (:createdFrom is null or o.createdAt >= :createdFrom)"
+            + " and (:createdTo is null or o.createdAt < :createdTo)")
+    int transitionStatus(Collection<Long> ids, Order.OrderStatus status, Order.OrderStatus targetStatus,
+                         Long userId, LocalDateTime createdFrom, LocalDateTime createdTo, LocalDateTime updatedAt);
+
+    @Query("select new com.github.nicolasholanda.elk_stack_poc.model.OrderTotalsRow(o.status, count(o), sum(o.totalAmount))"
+            + " from Order o group by o.status")
+    List<OrderTotalsRow> sumByStatus();
+
+    @Query("select new com.github.nicolasholanda.elk_stack_poc.model.OrderTotalsRow(o.userId, count(o), sum(o.totalAmount))"
+            + " from Order o group by o.userId")
+    List<OrderTotalsRow> sumByUser();
+
+    @Query("select new com.github.nicolasholanda.elk_stack_poc.model.OrderTotalsRow(cast(o.createdAt as LocalDate), count(o), sum(o.totalAmount))"
+            + " from Order o group by cast(o.createdAt as LocalDate)")
+    List<OrderTotalsRow> sumByDay();
+}
@@ -0,0 +1,198 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderSearchCriteria;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * SQL for one keyset page of an order search. Only the given filters become conditions, each a plain
+ * comparison on an indexed column (see {@code V5__Add_order_search_indexes.sql}), and the page is ordered
+ * by the sort column and id with the cursor as a range on the sort column, so the database can read the
+ * page from an index instead of scanning the table. Values are bound as ordinal parameters.
+ */
+public final class OrderSearchQuery {
+
+    private static final String SEPARATOR = "|";
+
+    private final Sort sort;
+    private final boolean descending;
+    private final String sql;
+    private final List<Object> parameters;
+
+    private OrderSearchQuery(Sort sort, boolean descending, String sql, List<Object> parameters) {
+        this.sort = sort;
+        this.descending = descending;
+        this.sql = sql;
+        this.parameters = List.copyOf(parameters);
+    }
+
+    /**
+     * @param sort   {@code createdAt}, {@code updatedAt} or {@code totalAmount}, optionally followed by
+     *               {@code ,asc} or {@code ,desc}
+     * @param cursor token from {@link #cursorAfter(Order)} of a query with the same sort, or null
+     * @param rows   maximum number of rows
+     */
+    public static OrderSearchQuery of(OrderSearchCriteria criteria, String sort, String cursor, int rows) {
+        String[] spec = sort.split(",", -1);
+        Sort column = Sort.of(spec[0].strip());
+        boolean descending = switch (spec.length == 1 ? "asc" : spec[1].strip().toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new IllegalArgumentException("Invalid sort '" + sort + "', expected field[,asc|desc]");
+        };
+        if (spec.length > 2) {
+            throw new IllegalArgumentException("Invalid sort '" + sort + "', expected field[,asc|desc]");
+        }
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (criteria.userId() != null) {
+            conditions.add("o.user_id = " + bind(parameters, criteria.userId()));
+        }
+        if (criteria.status() != null && !criteria.status().isEmpty()) {
+            conditions.add(EnumSet.copyOf(criteria.status()).stream()
+                    .map(status -> bind(parameters, status.name()))
+                    .collect(Collectors.joining(", ", "o.status in (", ")")));
+        }
+        if (criteria.minAmount() != null) {
+            conditions.add("o.total_amount >= " + bind(parameters, criteria.minAmount()));
+        }
+        if (criteria.maxAmount() != null) {
+            conditions.add("o.total_amount <= " + bind(parameters, criteria.maxAmount()));
+        }
+        if (criteria.createdFrom() != null) {
+            conditions.add("o.created_at >= " + bind(parameters, criteria.createdFrom()));
+        }
+        if (criteria.createdTo() != null) {
+            conditions.add("o.created_at < " + bind(parameters, criteria.createdTo()));
+        }
+        if (criteria.updatedFrom() != null) {
+            conditions.add("o.updated_at >= " + bind(parameters, criteria.updatedFrom()));
+        }
+        if (criteria.updatedTo() != null) {
+            conditions.add("o.updated_at < " + bind(parameters, criteria.updatedTo()));
+        }
+        if (criteria.descriptionPrefix() != null && !criteria.descriptionPrefix().isEmpty()) {
+            String pattern = criteria.descriptionPrefix().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            conditions.add("o.description like " + bind(parameters, pattern) + " escape '\\'");
+        }
+        String direction = descending ? "desc" : "asc";
+        if (cursor != null) {
+            String[] position = decode(cursor, column.field + "," + direction);
+            String value = bind(parameters, column.parse(position[0]));
+            String id = bind(parameters, parseId(position[1], cursor));
+            // The first comparison is the index range, the second skips ties up to the last row's id
+            String after = descending ? "<" : ">";
+            conditions.add("o." + column.column + " " + after + "= " + value
+                    + " and (o." + column.column + " " + after + " " + value + " or o.id " + after + " " + id + ")");
+        }
+
+        String sql = "select o.* from orders o"
+                + (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions))
+                + " order by o." + column.column + " " + direction + ", o.id " + direction
+                + " fetch first " + rows + " rows only";
+        return new OrderSearchQuery(column, descending, sql, parameters);
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    /**
+     * Values of the parameters {@code ?1}, {@code ?2}, ... in order.
+     */
+    public List<Object> parameters() {
+        return parameters;
+    }
+
+    /**
+     * Opaque token for the page after {@code last} in this query's sort order.
+     */
+    public String cursorAfter(Order last) {
+        String raw = sort.field + "," + (descending ? "desc" : "asc") + SEPARATOR + sort.format(last) + SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String bind(List<Object> parameters, Object value) {
+        parameters.add(value);
+        return "?" + parameters.size();
+    }
+
+    private static String[] decode(String token, String sort) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        if (!parts[0].equals(sort)) {
+            throw new IllegalArgumentException("Cursor " + token + " belongs to sort " + parts[0] + ", not " + sort);
+        }
+        return Arrays.copyOfRange(parts, 1, 3);
+    }
+
+    private static Long parseId(String id, String token) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    private enum Sort {
+        CREATED_AT("createdAt", "created_at", Order::getCreatedAt, LocalDateTime::parse),
+        UPDATED_AT("updatedAt", "updated_at", Order::getUpdatedAt, LocalDateTime::parse),
+        TOTAL_AMOUNT("totalAmount", "total_amount", Order::getTotalAmount, BigDecimal::new);
+
+        private final String field;
+        private final String column;
+        private final Function<Order, Object> value;
+        private final Function<String, Object> parser;
+
+        Sort(String field, String column, Function<Order, Object> value, Function<String, Object> parser) {
+            this.field = field;
+            this.column = column;
+            this.value = value;
+            this.parser = parser;
+        }
+
+        static Sort of(String field) {
+            for (Sort sort : values()) {
+                if (sort.field.equals(field)) {
+                    return sort;
+                }
+            }
+            throw new IllegalArgumentException("Unknown sort field '" + field + "', expected one of "
+                    + Arrays.stream(values()).map(sort -> sort.field).toList());
+        }
+
+        String format(Order order) {
+            Object sortValue = value.apply(order);
+            return sortValue instanceof BigDecimal amount ? amount.toPlainString() : String.valueOf(sortValue);
+        }
+
+        Object parse(String raw) {
+            try {
+                return parser.apply(raw);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor value '" + raw + "' for " + field, e);
+            }
+        }
+    }
+}
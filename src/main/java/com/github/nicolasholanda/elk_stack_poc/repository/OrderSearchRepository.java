@@ -0,0 +1,10 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+
+import java.util.List;
+
+public interface OrderSearchRepository {
+
+    List<Order> search(OrderSearchQuery query);
+}
@@ -0,0 +1,30 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+
+class OrderSearchRepositoryImpl implements OrderSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> search(OrderSearchQuery query) {
+        NativeQuery<Order> nativeQuery = entityManager.unwrap(Session.class)
+                .createNativeQuery(query.sql(), Order.class)
+                // Only orders have to be flushed first, not every entity in the session
+                .addSynchronizedEntityClass(Order.class);
+        List<Object> parameters = query.parameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            nativeQuery.setParameter(i + 1, parameters.get(i));
+        }
+        nativeQuery.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return nativeQuery.getResultList();
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Single-statement order writes returning the order as it was before (see {@link PreviousRowStatement}).
+ * Each matches the order by id and, when {@code version} is not null, by version, and increments the
+ * version. Empty when nothing matched.
+ */
+public interface OrderWriteRepository {
+
+    @Transactional
+    Optional<Order> updateStatus(Long id, Long version, Order.OrderStatus status, LocalDateTime updatedAt);
+
+    @Transactional
+    Optional<Order> updateDetails(Long id, Long version, String description, BigDecimal totalAmount, LocalDateTime updatedAt);
+
+    @Transactional
+    Optional<Order> deleteOrder(Long id, Long version);
+}
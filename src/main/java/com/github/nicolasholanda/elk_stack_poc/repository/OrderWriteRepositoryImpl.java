@@ -0,0 +1,35 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+class OrderWriteRepositoryImpl implements OrderWriteRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Order> updateStatus(Long id, Long version, Order.OrderStatus status, LocalDateTime updatedAt) {
+        return PreviousRowStatement.execute(entityManager, Order.class,
+                "update orders set status = ?1, updated_at = ?2, version = version + 1",
+                id, version, status.name(), updatedAt);
+    }
+
+    @Override
+    public Optional<Order> updateDetails(Long id, Long version, String description, BigDecimal totalAmount,
+                                         LocalDateTime updatedAt) {
+        return PreviousRowStatement.execute(entityManager, Order.class,
+                "update orders set description = ?1, total_amount = ?2, updated_at = ?3, version = version + 1",
+                id, version, description, totalAmount, updatedAt);
+    }
+
+    @Override
+    public Optional<Order> deleteOrder(Long id, Long version) {
+        return PreviousRowStatement.execute(entityManager, Order.class, "delete from orders", id, version);
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs a single-row {@code UPDATE} or {@code DELETE} by id, optionally conditional on the version, and
+ * returns the row as it was before, all in one statement through H2's data change delta table
+ * {@code OLD TABLE}. An empty result means no row had that id (and version), so writers can tell a missing
+ * or outdated row from the write itself without reading first.
+ * <p>
+ * The returned entity is detached, so the persistence context never holds the old state. It has to be the
+ * first load of that entity in the transaction; an instance already managed would be returned instead.
+ */
+final class PreviousRowStatement {
+
+    private PreviousRowStatement() {
+    }
+
+    /**
+     * @param change statement up to, not including, the {@code WHERE} clause, with its values as {@code ?1},
+     *               {@code ?2}, ... in the order of {@code values}
+     */
+    static <T> Optional<T> execute(EntityManager entityManager, Class<T> entityClass, String change,
+                                   Long id, Long version, Object... values) {
+        List<Object> parameters = new ArrayList<>(Arrays.asList(values));
+        parameters.add(id);
+        StringBuilder sql = new StringBuilder("select * from old table (").append(change)
+                .append(" where id = ?").append(parameters.size());
+        if (version != null) {
+            parameters.add(version);
+            sql.append(" and version = ?").append(parameters.size());
+        }
+        sql.append(')');
+
+        NativeQuery<T> query = entityManager.unwrap(Session.class)
+                .createNativeQuery(sql.toString(), entityClass)
+                .addSynchronizedEntityClass(entityClass);
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        Optional<T> previous = query.uniqueResultOptional();
+        previous.ifPresent(entityManager::detach);
+        return previous;
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Selects only the requested fields of an entity as scalar columns, so neither a managed entity nor
+ * unused columns are loaded, and returns each row as a map from field name to value in the entity's
+ * field order. Field names are checked against a fixed list before they become part of a query.
+ */
+public final class SparseFieldQuery {
+
+    private final String entity;
+    private final List<String> fields;
+
+    public SparseFieldQuery(String entity, List<String> fields) {
+        this.entity = entity;
+        this.fields = List.copyOf(fields);
+    }
+
+    /**
+     * Parses a comma-separated {@code fields} parameter into the selected field names.
+     */
+    public Set<String> parse(String csv) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : csv.split(",")) {
+            if (!field.isBlank()) {
+                requested.add(field.strip());
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one of " + fields);
+        }
+        for (String field : requested) {
+            if (!fields.contains(field)) {
+                throw new IllegalArgumentException("Unknown field '" + field + "', expected one of " + fields);
+            }
+        }
+        return requested;
+    }
+
+    List<Map<String, Object>> list(EntityManager entityManager, Set<String> selected, String condition,
+                                   Map<String, Object> parameters, String orderBy, Limit limit) {
+        List<String> columns = fields.stream().filter(selected::contains).toList();
+        if (columns.size() != selected.size()) {
+            throw new IllegalArgumentException("Unknown fields in " + selected + ", expected some of " + fields);
+        }
+        String jpql = "select " + columns.stream().map(field -> "e." + field).collect(Collectors.joining(", "))
+                + " from " + entity + " e"
+                + (condition == null ? "" : " where " + condition)
+                + " order by " + orderBy;
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        parameters.forEach(query::setParameter);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+
+        List<Tuple> tuples = query.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>(columns.size() * 2);
+            for (int i = 0; i < columns.size(); i++) {
+                row.put(columns.get(i), tuple.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.KeysetCursor;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface UserFieldRepository {
+
+    SparseFieldQuery USER_FIELDS = new SparseFieldQuery("User", List.of(
+            "id", "name", "email", "phone", "createdAt", "updatedAt", "version"));
+
+    /**
+     * Keyset page on (createdAt, id) after {@code after}, or the first page when it is null.
+     */
+    List<Map<String, Object>> findFieldsPage(KeysetCursor after, Set<String> fields, Limit limit);
+}
@@ -0,0 +1,26 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class UserFieldRepositoryImpl implements UserFieldRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFieldsPage(KeysetCursor after, Set<String> fields, Limit limit) {
+        if (after == null) {
+            return USER_FIELDS.list(entityManager, fields, null, Map.of(), "e.createdAt, e.id", limit);
+        }
+        return USER_FIELDS.list(entityManager, fields,
+                "e.createdAt > :createdAt or (e.createdAt = :createdAt and e.id > :id)",
+                Map.of("createdAt", after.createdAt(), "id", after.id()), "e.createdAt, e.id", limit);
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Single-statement user writes returning the user as it was before (see {@link PreviousRowStatement}).
+ */
+public interface UserWriteRepository {
+
+    /**
+     * Matches the user by id and, when {@code version} is not null, by version, and increments the version.
+     * Empty when nothing matched.
+     */
+    @Transactional
+    Optional<User> updateDetails(Long id, Long version, String name, String email, String phone, LocalDateTime updatedAt);
+
+    @Transactional
+    Optional<User> deleteUser(Long id);
+}
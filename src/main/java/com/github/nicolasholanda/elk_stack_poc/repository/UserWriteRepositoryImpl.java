@@ -0,0 +1,27 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+class UserWriteRepositoryImpl implements UserWriteRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> updateDetails(Long id, Long version, String name, String email, String phone,
+                                        LocalDateTime updatedAt) {
+        return PreviousRowStatement.execute(entityManager, User.class,
+                "update users set name = ?1, email = ?2, phone = ?3, updated_at = ?4, version = version + 1",
+                id, version, name, email, phone, updatedAt);
+    }
+
+    @Override
+    public Optional<User> deleteUser(Long id) {
+        return PreviousRowStatement.execute(entityManager, User.class, "delete from users", id, null);
+    }
+}
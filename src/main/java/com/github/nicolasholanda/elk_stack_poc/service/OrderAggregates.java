@@ -0,0 +1,199 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+import com.github.nicolasholanda.elk_stack_poc.model.AggregateCheck;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderChangeEvent;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderTotals;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderTotalsRow;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
+
+/**
+ * Order count and total amount per status, user and creation day, kept in memory and updated from the
+ * {@link OrderChangeEvent} of every committed write of {@link OrderService}, so aggregate reads never scan
+ * the orders table and a rolled back write never counts. Counts and amounts (in cents) are
+ * {@link LongAdder}s, so concurrent writers do not contend on a shared counter.
+ * <p>
+ * The totals are rebuilt from the table on startup. Writes that bypass {@link OrderService} are not
+ * seen; {@link #checkConsistency()} compares the counters with a {@code GROUP BY} to detect drift.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderAggregates {
+
+    private final OrderRepository orderRepository;
+
+    private final Map<Order.OrderStatus, Totals> byStatus = new ConcurrentHashMap<>();
+    private final Map<Long, Totals> byUser = new ConcurrentHashMap<>();
+    private final Map<LocalDate, Totals> byDay = new ConcurrentHashMap<>();
+
+    /**
+     * Brings the counters in line with the table. The difference to the {@code GROUP BY} is added to the
+     * live counters rather than replacing them, so events applied meanwhile are kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        refresh(byStatus, orderRepository::sumByStatus);
+        refresh(byUser, orderRepository::sumByUser);
+        refresh(byDay, orderRepository::sumByDay);
+        log.info("Order aggregates rebuilt for {} users and {} days in {}ms", byUser.size(), byDay.size(),
+                v("duration_ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void apply(OrderChangeEvent event) {
+        long cents = cents(event.totalAmount());
+        switch (event.type()) {
+            case CREATED -> add(event.status(), event.userId(), event.createdAt(), 1, cents);
+            case DELETED -> add(event.previousStatus(), event.userId(), event.createdAt(), -1, -cents);
+            case UPDATED -> add(event.status(), event.userId(), event.createdAt(), 0,
+                    cents - cents(event.previousTotalAmount()));
+            case STATUS_CHANGED -> {
+                add(byStatus, event.previousStatus(), -1, -cents);
+                add(byStatus, event.status(), 1, cents);
+            }
+            case RESET -> {
+            }
+        }
+    }
+
+    public Map<Order.OrderStatus, OrderTotals> totalsByStatus() {
+        Map<Order.OrderStatus, OrderTotals> totals = new EnumMap<>(Order.OrderStatus.class);
+        byStatus.forEach((status, counters) -> putIfNotEmpty(totals, status, counters.snapshot()));
+        return totals;
+    }
+
+    public OrderTotals totalsForUser(Long userId) {
+        Totals counters = byUser.get(userId);
+        return counters == null ? new OrderTotals(0, BigDecimal.ZERO.setScale(2)) : counters.snapshot();
+    }
+
+    /**
+     * Totals per creation day between {@code from} and {@code to}, both inclusive and both optional.
+     */
+    public SortedMap<LocalDate, OrderTotals> totalsByDay(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, OrderTotals> totals = new TreeMap<>();
+        byDay.forEach((day, counters) -> {
+            if ((from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to))) {
+                putIfNotEmpty(totals, day, counters.snapshot());
+            }
+        });
+        return totals;
+    }
+
+    public AggregateCheck checkConsistency() {
+        List<String> mismatches = new ArrayList<>();
+        compare("status", byStatus, orderRepository.sumByStatus(), mismatches);
+        compare("user", byUser, orderRepository.sumByUser(), mismatches);
+        compare("day", byDay, orderRepository.sumByDay(), mismatches);
+        if (!mismatches.isEmpty()) {
+            log.warn("Order aggregates differ from the orders table in {} groups: {}", mismatches.size(), mismatches);
+        }
+        return new AggregateCheck(mismatches.isEmpty(), mismatches);
+    }
+
+    private void add(Order.OrderStatus status, Long userId, LocalDateTime createdAt, long orders, long cents) {
+        add(byStatus, status, orders, cents);
+        add(byUser, userId, orders, cents);
+        if (createdAt != null) {
+            add(byDay, createdAt.toLocalDate(), orders, cents);
+        }
+    }
+
+    private static <K> void add(Map<K, Totals> counters, K key, long orders, long cents) {
+        if (key != null) {
+            counters.computeIfAbsent(key, k -> new Totals()).add(orders, cents);
+        }
+    }
+
+    /**
+     * Adds {@code GROUP BY} minus the counters as read just before the query. Only an event committed
+     * between the read and the query is counted twice, which the consistency check would report.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K> void refresh(Map<K, Totals> counters, Supplier<List<OrderTotalsRow>> query) {
+        Map<K, long[]> delta = new HashMap<>();
+        counters.forEach((key, totals) -> delta.put(key, new long[]{-totals.count.sum(), -totals.cents.sum()}));
+        for (OrderTotalsRow row : query.get()) {
+            if (row.key() != null) {
+                long[] difference = delta.computeIfAbsent((K) row.key(), key -> new long[2]);
+                difference[0] += row.orderCount();
+                difference[1] += cents(row.totalAmount());
+            }
+        }
+        delta.forEach((key, difference) -> add(counters, key, difference[0], difference[1]));
+    }
+
+    private static <K> void compare(String dimension, Map<K, Totals> counters, List<OrderTotalsRow> rows,
+                                    List<String> mismatches) {
+        Map<Object, OrderTotals> expected = new HashMap<>();
+        for (OrderTotalsRow row : rows) {
+            if (row.key() != null) {
+                expected.put(row.key(), new OrderTotals(row.orderCount(), row.totalAmount().setScale(2, RoundingMode.HALF_UP)));
+            }
+        }
+        Map<Object, OrderTotals> actual = new HashMap<>();
+        counters.forEach((key, totals) -> putIfNotEmpty(actual, key, totals.snapshot()));
+
+        Set<Object> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+        for (Object key : keys) {
+            if (!Objects.equals(expected.get(key), actual.get(key))) {
+                mismatches.add(dimension + " " + key + ": expected " + expected.get(key) + ", actual " + actual.get(key));
+            }
+        }
+    }
+
+    private static <K> void putIfNotEmpty(Map<K, OrderTotals> target, K key, OrderTotals totals) {
+        if (totals.orderCount() != 0 || totals.totalAmount().signum() != 0) {
+            target.put(key, totals);
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static final class Totals {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder cents = new LongAdder();
+
+        void add(long orders, long amountCents) {
+            count.add(orders);
+            cents.add(amountCents);
+        }
+
+        OrderTotals snapshot() {
+            return new OrderTotals(count.sum(), BigDecimal.valueOf(cents.sum(), 2));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+import com.github.nicolasholanda.elk_stack_poc.config.OrderChangeProperties;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
+
+/**
+ * Bounded in-memory journal of order changes, fed after commit, with one reader thread per stream
+ * subscriber. Writers only store the event in a ring and wake the readers, so they never wait for a
+ * subscriber. Each subscriber reads at the pace its connection accepts; one that falls a full journal
+ * behind has missed events and is evicted with a {@link OrderChangeEvent.Type#RESET}.
+ * <p>
+ * Sequences start over when the application restarts, so a resume point beyond the journal also resets.
+ */
+@Slf4j
+@Component
+public class OrderChangeJournal {
+
+    private static final int MAX_READ = 256;
+
+    private final OrderChangeProperties properties;
+    private final OrderChangeEvent[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private long lastSequence;
+    private volatile boolean closed;
+
+    public OrderChangeJournal(OrderChangeProperties properties) {
+        this.properties = properties;
+        this.ring = new OrderChangeEvent[properties.journalSize()];
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void append(OrderChangeEvent event) {
+        lock.lock();
+        try {
+            long sequence = ++lastSequence;
+            ring[(int) (sequence % ring.length)] = event.withSequence(sequence);
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends all streams when the application shuts down, so graceful shutdown does not wait for them.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int subscribers() {
+        return subscribers.get();
+    }
+
+    /**
+     * Starts streaming the changes after {@code after} (or from now on when null), optionally only those
+     * of one user, to {@code sink} on a virtual thread of its own. Ends when the sink fails, usually
+     * because the client went away, or after a reset.
+     *
+     * @throws IllegalStateException when {@code app.orders.changes.max-subscribers} are already connected
+     */
+    public void subscribe(Long after, Long userId, ChangeSink sink) {
+        if (subscribers.incrementAndGet() > properties.maxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("Too many order change subscribers");
+        }
+        long from = after != null ? after : lastSequence();
+        Thread.ofVirtual().name("order-changes").start(() -> {
+            try {
+                follow(from, userId, sink);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Order change subscriber disconnected: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                subscribers.decrementAndGet();
+                sink.close();
+            }
+        });
+    }
+
+    /**
+     * Sends a heartbeat whenever nothing reached the sink for a heartbeat interval, also while events of
+     * other users keep coming, so idle proxies keep the stream open and a dead client is noticed.
+     */
+    private void follow(long cursor, Long userId, ChangeSink sink) throws IOException, InterruptedException {
+        long heartbeatNanos = properties.heartbeatInterval().toNanos();
+        long deliveredAt = System.nanoTime();
+        while (!closed) {
+            List<OrderChangeEvent> events = read(cursor, properties.heartbeatInterval());
+            if (events == null) {
+                long resumeAfter = lastSequence();
+                log.warn("Evicting order change subscriber at sequence {}, journal is at {}",
+                        v("sequence", cursor), v("last_sequence", resumeAfter));
+                sink.send(OrderChangeEvent.reset(resumeAfter));
+                return;
+            }
+            for (OrderChangeEvent event : events) {
+                if (userId == null || userId.equals(event.userId())) {
+                    sink.send(event);
+                    deliveredAt = System.nanoTime();
+                }
+                cursor = event.sequence();
+            }
+            if (System.nanoTime() - deliveredAt >= heartbeatNanos) {
+                sink.heartbeat();
+                deliveredAt = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Events after {@code after}, waiting up to {@code timeout} for the first one. Null when some of them
+     * are no longer in the journal.
+     */
+    List<OrderChangeEvent> read(long after, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = timeout.toNanos();
+            while (lastSequence == after && nanos > 0 && !closed) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            if (after > lastSequence || after < lastSequence - ring.length) {
+                return null;
+            }
+            int count = (int) Math.min(MAX_READ, lastSequence - after);
+            List<OrderChangeEvent> events = new ArrayList<>(count);
+            for (long sequence = after + 1; sequence <= after + count; sequence++) {
+                events.add(ring[(int) (sequence % ring.length)]);
+            }
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public interface ChangeSink {
+
+        void send(OrderChangeEvent event) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+}
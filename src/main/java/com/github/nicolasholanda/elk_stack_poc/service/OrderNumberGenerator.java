@@ -0,0 +1,10 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+/**
+ * Produces the public {@code ORD-} number of a new order. Implementations must be thread-safe and
+ * never return the same number twice.
+ */
+public interface OrderNumberGenerator {
+
+    String next();
+}
@@ -1,113 +1,514 @@
 package com.github.nicolasholanda.elk_stack_poc.service;
 
+import com.github.nicolasholanda.elk_stack_poc.config.CacheConfig;
+import com.github.nicolasholanda.elk_stack_poc.config.OrderBatchProperties;
+import com.github.nicolasholanda.elk_stack_poc.config.OrderTransitionProperties;
+import com.github.nicolasholanda.elk_stack_poc.config.ReadWriteRoutingDataSource;
+import com.github.nicolasholanda.elk_stack_poc.model.BatchItemResult;
+import com.github.nicolasholanda.elk_stack_poc.model.BatchResult;
+import com.github.nicolasholanda.elk_stack_poc.model.CursorPage;
+import com.github.nicolasholanda.elk_stack_poc.model.KeysetCursor;
 import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderChangeEvent;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderSearchCriteria;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderView;
+import com.github.nicolasholanda.elk_stack_poc.model.StatusTransitionRequest;
+import com.github.nicolasholanda.elk_stack_poc.model.StatusTransitionResult;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderFieldRepository;
 import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderSearchQuery;
+import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
+
     private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderBatchProperties batchProperties;
+    private final OrderTransitionProperties transitionProperties;
+    private final CacheManager cacheManager;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<Long, List<OrderView>> ordersByUserFlight;
+    private final SingleFlight<Long, Optional<Order>> orderByIdFlight;
+    private final SingleFlight<String, Optional<Order>> orderByNumberFlight;
 
     public Order createOrder(Order order) {
-        log.info("Creating new order for user: {}", order.getUserId());
-        order.setOrderNumber(generateOrderNumber());
+        log.info("Creating new order for user: {}", v("user_id", order.getUserId()));
+        order.setOrderNumber(orderNumberGenerator.next());
         order.setCreatedAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
 
         try {
             Order savedOrder = orderRepository.save(order);
-            log.info("Order created successfully with id: {}, orderNumber: {}", savedOrder.getId(), savedOrder.getOrderNumber());
+            log.info("Order created successfully with id: {}, orderNumber: {}",
+                    v("order_id", savedOrder.getId()), v("order_number", savedOrder.getOrderNumber()));
+            cache(savedOrder);
+            eventPublisher.publishEvent(OrderChangeEvent.created(savedOrder));
             return savedOrder;
         } catch (Exception e) {
-            log.error("Error creating order for user: {}", order.getUserId(), e);
+            log.error("Error creating order for user: {}", v("user_id", order.getUserId()), e);
             throw new RuntimeException("Failed to create order", e);
         }
     }
 
+    public BatchResult createOrders(List<Order> orders) {
+        log.info("Creating batch of {} orders", orders.size());
+        if (orders.size() > batchProperties.maxSize()) {
+            throw new IllegalArgumentException("Batch size " + orders.size() + " exceeds maximum of " + batchProperties.maxSize());
+        }
+
+        Set<Long> existingUserIds = userRepository.findExistingIds(orders.stream()
+                .filter(Objects::nonNull)
+                .map(Order::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        BatchItemResult[] results = new BatchItemResult[orders.size()];
+        List<Integer> accepted = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            String error = validateForBatch(orders.get(i), existingUserIds);
+            if (error == null) {
+                accepted.add(i);
+            } else {
+                results[i] = BatchItemResult.invalid(i, error);
+            }
+        }
+
+        for (int from = 0; from < accepted.size(); from += batchProperties.chunkSize()) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + batchProperties.chunkSize(), accepted.size()));
+            persistChunk(orders, chunk, results);
+        }
+
+        BatchResult result = BatchResult.of(Arrays.asList(results));
+        log.info("Order batch completed. created: {}, rejected: {}", result.created(), result.rejected());
+        return result;
+    }
+
     public Optional<Order> getOrderById(Long id) {
-        log.debug("Fetching order with id: {}", id);
-        return orderRepository.findById(id);
+        log.debug("Fetching order with id: {}", v("order_id", id));
+        Order cached = ordersById().get(id, Order.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return orderByIdFlight.execute(id, () -> ReadWriteRoutingDataSource.onPrimary(() -> orderRepository.findById(id)),
+                order -> order.ifPresent(this::cache));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getAllOrders(String cursor, int limit) {
+        log.debug("Fetching orders page after cursor: {} with limit: {}", cursor, limit);
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<Order> orders;
+        if (cursor == null) {
+            orders = orderRepository.findAllByOrderByCreatedAtAscIdAsc(fetchLimit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            orders = orderRepository.findPageAfter(after.createdAt(), after.id(), fetchLimit);
+        }
+
+        if (orders.size() <= limit) {
+            return new CursorPage<>(orders, null);
+        }
+        List<Order> page = orders.subList(0, limit);
+        Order last = page.get(limit - 1);
+        return new CursorPage<>(page, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Keyset page with only the requested fields. The keyset columns are always selected for the cursor
+     * and dropped from the rows again if they were not requested.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> getAllOrders(String cursor, int limit, String fields) {
+        log.debug("Fetching fields {} of orders page after cursor: {} with limit: {}", fields, cursor, limit);
+        Set<String> selected = OrderFieldRepository.ORDER_FIELDS.parse(fields);
+        Set<String> fetched = new LinkedHashSet<>(selected);
+        fetched.add("createdAt");
+        fetched.add("id");
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        List<Map<String, Object>> rows = orderRepository.findFieldsPage(after, fetched, Limit.of(limit + 1));
+
+        String next = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Map<String, Object> last = rows.get(limit - 1);
+            next = new KeysetCursor((LocalDateTime) last.get("createdAt"), (Long) last.get("id")).encode();
+        }
+        rows.forEach(row -> row.keySet().retainAll(selected));
+        return new CursorPage<>(rows, next);
+    }
+
+    /**
+     * Keyset page of the orders matching all given filters, ordered by {@code sort} (see
+     * {@link OrderSearchQuery#of}) and id.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Order> searchOrders(OrderSearchCriteria criteria, String sort, String cursor, int limit) {
+        log.debug("Searching orders by {} sorted by {} after cursor: {} with limit: {}", criteria, sort, cursor, limit);
+        OrderSearchQuery query = OrderSearchQuery.of(criteria, sort, cursor, limit + 1);
+        List<Order> orders = orderRepository.search(query);
+
+        if (orders.size() <= limit) {
+            return new CursorPage<>(orders, null);
+        }
+        List<Order> page = orders.subList(0, limit);
+        return new CursorPage<>(page, query.cursorAfter(page.get(limit - 1)));
     }
 
-    public List<Order> getAllOrders() {
-        log.debug("Fetching all orders");
-        return orderRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamAllOrders(Consumer<Order> consumer) {
+        log.debug("Streaming all orders");
+        try (Stream<Order> orders = orderRepository.streamAllOrdered()) {
+            orders.forEach(order -> {
+                consumer.accept(order);
+                entityManager.detach(order);
+            });
+        }
     }
 
     public Optional<Order> getOrderByOrderNumber(String orderNumber) {
-        log.debug("Fetching order with orderNumber: {}", orderNumber);
-        return orderRepository.findByOrderNumber(orderNumber);
+        log.debug("Fetching order with orderNumber: {}", v("order_number", orderNumber));
+        Long id = ordersByNumber().get(orderNumber, Long.class);
+        if (id != null) {
+            Order cached = ordersById().get(id, Order.class);
+            if (cached != null && orderNumber.equals(cached.getOrderNumber())) {
+                return Optional.of(cached);
+            }
+        }
+        return orderByNumberFlight.execute(orderNumber,
+                () -> ReadWriteRoutingDataSource.onPrimary(() -> orderRepository.findByOrderNumber(orderNumber)),
+                order -> order.ifPresent(this::cache));
     }
 
-    public List<Order> getOrdersByUserId(Long userId) {
-        log.debug("Fetching orders for user: {}", userId);
-        List<Order> orders = orderRepository.findByUserId(userId);
-        log.debug("Found {} orders for user: {}", orders.size(), userId);
+    /**
+     * Concurrent calls for the same user share one query. Not transactional itself, so callers waiting for
+     * the query in flight do not hold a connection. A caller that reads from the primary only (to see its
+     * own writes) runs its own query: the one in flight may be served by a lagging replica.
+     */
+    public List<OrderView> getOrdersByUserId(Long userId) {
+        log.debug("Fetching orders for user: {}", v("user_id", userId));
+        List<OrderView> orders = ReadWriteRoutingDataSource.isPrimaryOnly()
+                ? orderRepository.findViewsByUserId(userId)
+                : ordersByUserFlight.execute(userId, () -> orderRepository.findViewsByUserId(userId));
+        log.debug("Found {} orders for user: {}", orders.size(), v("user_id", userId));
         return orders;
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOrdersByUserId(Long userId, String fields) {
+        log.debug("Fetching fields {} of orders for user: {}", fields, v("user_id", userId));
+        return orderRepository.findFieldsByUserId(userId, OrderFieldRepository.ORDER_FIELDS.parse(fields));
+    }
+
+    @Transactional
     public Order updateOrderStatus(Long id, Order.OrderStatus newStatus) {
-        log.info("Updating order status for id: {} to status: {}", id, newStatus);
+        return updateOrderStatus(id, newStatus, null);
+    }
 
-        return orderRepository.findById(id)
-                .map(order -> {
-                    Order.OrderStatus oldStatus = order.getStatus();
-                    log.debug("Order found, updating status from {} to {}", oldStatus, newStatus);
-                    order.setStatus(newStatus);
-                    order.setUpdatedAt(LocalDateTime.now());
-                    Order updated = orderRepository.save(order);
-                    log.info("Order status updated successfully. Id: {}, oldStatus: {}, newStatus: {}", id, oldStatus, newStatus);
-                    return updated;
-                })
-                .orElseThrow(() -> {
-                    log.warn("Order not found with id: {}", id);
-                    return new RuntimeException("Order not found with id: " + id);
-                });
+    @Transactional
+    public Order updateOrderStatus(Long id, Order.OrderStatus newStatus, Long expectedVersion) {
+        log.info("Updating order status for id: {} to status: {}", v("order_id", id), v("order_status", newStatus));
+
+        LocalDateTime now = LocalDateTime.now();
+        Order previous = orderRepository.updateStatus(id, expectedVersion, newStatus, now)
+                .orElseThrow(() -> notWritten(id, expectedVersion));
+        Order updated = previous.toBuilder()
+                .status(newStatus)
+                .updatedAt(now)
+                .version(previous.getVersion() + 1)
+                .build();
+        evict(id, previous.getOrderNumber());
+        eventPublisher.publishEvent(OrderChangeEvent.statusChanged(updated, previous.getStatus()));
+        log.info("Order status updated successfully. Id: {}, oldStatus: {}, newStatus: {}",
+                v("order_id", id), v("previous_status", previous.getStatus()), v("order_status", newStatus));
+        return updated;
     }
 
+    @Transactional
     public Order updateOrder(Long id, Order orderDetails) {
-        log.info("Updating order with id: {}", id);
+        log.info("Updating order with id: {}", v("order_id", id));
 
-        return orderRepository.findById(id)
-                .map(order -> {
-                    log.debug("Order found, updating details for id: {}", id);
-                    order.setDescription(orderDetails.getDescription());
-                    order.setTotalAmount(orderDetails.getTotalAmount());
-                    order.setUpdatedAt(LocalDateTime.now());
-                    Order updated = orderRepository.save(order);
-                    log.info("Order updated successfully with id: {}", id);
-                    return updated;
-                })
-                .orElseThrow(() -> {
-                    log.warn("Order not found with id: {}", id);
-                    return new RuntimeException("Order not found with id: " + id);
+        LocalDateTime now = LocalDateTime.now();
+        Order previous = orderRepository.updateDetails(id, orderDetails.getVersion(), orderDetails.getDescription(),
+                        orderDetails.getTotalAmount(), now)
+                .orElseThrow(() -> notWritten(id, orderDetails.getVersion()));
+        Order updated = previous.toBuilder()
+                .description(orderDetails.getDescription())
+                .totalAmount(orderDetails.getTotalAmount())
+                .updatedAt(now)
+                .version(previous.getVersion() + 1)
+                .build();
+        evict(id, previous.getOrderNumber());
+        eventPublisher.publishEvent(OrderChangeEvent.updated(updated, previous.getTotalAmount()));
+        log.info("Order updated successfully with id: {}", v("order_id", id));
+        return updated;
+    }
+
+    /**
+     * Applies a status change to every matching order in chunks of {@code app.orders.transitions.chunk-size}.
+     * Each chunk runs in its own short transaction that locks the orders still in the source status and
+     * updates exactly those, so only legal transitions are applied even when orders change concurrently, each
+     * moved order gets one change event, and no lock is held across chunks.
+     */
+    public StatusTransitionResult transitionOrders(StatusTransitionRequest request) {
+        Order.OrderStatus target = request.targetStatus();
+        if (target == null) {
+            throw new IllegalArgumentException("targetStatus is required");
+        }
+        if (!request.hasFilter()) {
+            throw new IllegalArgumentException("At least one filter is required");
+        }
+        if (request.ids() != null && request.ids().size() > transitionProperties.maxIds()) {
+            throw new IllegalArgumentException("At most " + transitionProperties.maxIds() + " ids are allowed");
+        }
+
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Order.OrderStatus, Integer> transitioned = new EnumMap<>(Order.OrderStatus.class);
+        Set<Order.OrderStatus> illegal = EnumSet.noneOf(Order.OrderStatus.class);
+        AtomicInteger chunks = new AtomicInteger();
+        boolean byStatus = request.statuses() != null && !request.statuses().isEmpty();
+        for (Order.OrderStatus source : Order.OrderStatus.values()) {
+            if (byStatus && !request.statuses().contains(source)) {
+                continue;
+            }
+            if (!source.canTransitionTo(target)) {
+                if (byStatus) {
+                    illegal.add(source);
+                }
+                continue;
+            }
+            AtomicInteger count = new AtomicInteger();
+            forEachChunk(request, source, ids -> {
+                List<Order> moved = transactionTemplate.execute(tx -> {
+                    List<Order> locked = orderRepository.lockForTransition(ids, source, request.userId(),
+                            request.createdFrom(), request.createdTo());
+                    if (!locked.isEmpty()) {
+                        orderRepository.transitionStatus(locked.stream().map(Order::getId).toList(), source, target,
+                                request.userId(), request.createdFrom(), request.createdTo(), now);
+                    }
+                    return locked;
                 });
+                count.addAndGet(moved.size());
+                for (Order order : moved) {
+                    evict(order.getId(), order.getOrderNumber());
+                    eventPublisher.publishEvent(OrderChangeEvent.statusChanged(order.toBuilder()
+                            .status(target)
+                            .updatedAt(now)
+                            .version(order.getVersion() + 1)
+                            .build(), source));
+                }
+                chunks.incrementAndGet();
+            });
+            transitioned.put(source, count.get());
+        }
+
+        int total = transitioned.values().stream().mapToInt(Integer::intValue).sum();
+        log.info("Bulk status transition to {} moved {} orders in {} chunks ({}ms): {}",
+                v("order_status", target), v("transitioned_count", total), v("chunk_count", chunks.get()),
+                v("duration_ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)),
+                v("transitioned_by_status", transitioned));
+        return new StatusTransitionResult(target, total, transitioned, illegal);
     }
 
+    @Transactional
     public void deleteOrder(Long id) {
-        log.info("Deleting order with id: {}", id);
+        log.info("Deleting order with id: {}", v("order_id", id));
 
-        if (orderRepository.existsById(id)) {
-            orderRepository.deleteById(id);
-            log.info("Order deleted successfully with id: {}", id);
-        } else {
-            log.warn("Order not found for deletion with id: {}", id);
-            throw new RuntimeException("Order not found with id: " + id);
+        Order existing = orderRepository.deleteOrder(id, null).orElseThrow(() -> {
+            log.warn("Order not found for deletion with id: {}", v("order_id", id));
+            return new RuntimeException("Order not found with id: " + id);
+        });
+        evict(id, existing.getOrderNumber());
+        eventPublisher.publishEvent(OrderChangeEvent.deleted(existing));
+        log.info("Order deleted successfully with id: {}", v("order_id", id));
+    }
+
+    /**
+     * After the commit of an order write, a query for the user that is still in flight may have read the old
+     * state, so later callers start their own.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void forgetOrdersInFlight(OrderChangeEvent event) {
+        if (event.userId() != null) {
+            ordersByUserFlight.forget(event.userId());
+        }
+    }
+
+    /**
+     * Called when a conditional write matched no row. Without an expected version the order does not
+     * exist; with one, a lookup tells a missing order from one at another version. Only this failure path
+     * reads the order, and write methods are transactional, so it reads from the primary.
+     */
+    private RuntimeException notWritten(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return notFound(id);
+        }
+        return orderRepository.findById(id)
+                .<RuntimeException>map(order -> {
+                    log.warn("Order {} is at version {}, request expected {}", v("order_id", id), order.getVersion(), expectedVersion);
+                    return new OptimisticLockingFailureException("Order " + id + " is at version "
+                            + order.getVersion() + ", expected " + expectedVersion);
+                })
+                .orElseGet(() -> notFound(id));
+    }
+
+    private RuntimeException notFound(Long id) {
+        log.warn("Order not found with id: {}", v("order_id", id));
+        return new RuntimeException("Order not found with id: " + id);
+    }
+
+    /**
+     * Hands the ids to transition from one source status to {@code chunk}, one chunk at a time: slices of
+     * the explicit id list, or keyset pages of the orders still in that status.
+     */
+    private void forEachChunk(StatusTransitionRequest request, Order.OrderStatus source, Consumer<List<Long>> chunk) {
+        int chunkSize = transitionProperties.chunkSize();
+        if (request.ids() != null) {
+            List<Long> ids = request.ids().stream().filter(Objects::nonNull).distinct().sorted().toList();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                chunk.accept(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            }
+            return;
         }
+        List<Long> ids;
+        Long afterId = 0L;
+        do {
+            ids = orderRepository.findIdsByStatusAfter(source, afterId, request.userId(),
+                    request.createdFrom(), request.createdTo(), Limit.of(chunkSize));
+            if (!ids.isEmpty()) {
+                chunk.accept(ids);
+                afterId = ids.getLast();
+            }
+        } while (ids.size() == chunkSize);
+    }
+
+    private String validateForBatch(Order order, Set<Long> existingUserIds) {
+        if (order == null) {
+            return "order is required";
+        }
+        if (order.getUserId() == null) {
+            return "userId is required";
+        }
+        if (!existingUserIds.contains(order.getUserId())) {
+            return "user not found: " + order.getUserId();
+        }
+        if (order.getTotalAmount() == null || order.getTotalAmount().signum() < 0) {
+            return "totalAmount must be zero or positive";
+        }
+        if (order.getDescription() != null && order.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "description must be at most " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private void persistChunk(List<Order> orders, List<Integer> indexes, BatchItemResult[] results) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                for (int index : indexes) {
+                    Order order = orders.get(index);
+                    order.setId(null);
+                    order.setOrderNumber(orderNumberGenerator.next());
+                    if (order.getStatus() == null) {
+                        order.setStatus(Order.OrderStatus.PENDING);
+                    }
+                    order.setCreatedAt(now);
+                    order.setUpdatedAt(now);
+                    entityManager.persist(order);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            for (int index : indexes) {
+                results[index] = BatchItemResult.created(index, orders.get(index));
+                eventPublisher.publishEvent(OrderChangeEvent.created(orders.get(index)));
+            }
+            log.debug("Persisted order batch chunk of {} orders", indexes.size());
+        } catch (RuntimeException e) {
+            log.error("Error persisting order batch chunk of {} orders", indexes.size(), e);
+            for (int index : indexes) {
+                results[index] = BatchItemResult.failed(index, "chunk rolled back: " + e.getMessage());
+            }
+        }
+    }
+
+    private void cache(Order order) {
+        ordersById().put(order.getId(), order);
+        ordersByNumber().put(order.getOrderNumber(), order.getId());
+    }
+
+    /**
+     * Evicts now and again once the transaction completes: a read between the two still sees the old row,
+     * so whatever it cached or is still loading is dropped as well.
+     */
+    private void evict(Long id, String orderNumber) {
+        evictNow(id, orderNumber);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(id, orderNumber);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long id, String orderNumber) {
+        orderByIdFlight.forget(id);
+        ordersById().evict(id);
+        if (orderNumber != null) {
+            orderByNumberFlight.forget(orderNumber);
+            ordersByNumber().evict(orderNumber);
+        }
+    }
+
+    private Cache ordersById() {
+        return cacheManager.getCache(CacheConfig.ORDERS);
     }
 
-    private String generateOrderNumber() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    private Cache ordersByNumber() {
+        return cacheManager.getCache(CacheConfig.ORDERS_BY_NUMBER);
     }
 }
 
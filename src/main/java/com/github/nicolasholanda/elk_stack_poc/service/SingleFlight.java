@@ -0,0 +1,137 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: the first caller for a key runs the load on its own thread, callers
+ * arriving while it runs wait for the same result (or exception) instead of running the query again. A
+ * waiter gives up after {@code timeout} and loads by itself.
+ * <p>
+ * {@link #forget(Object)} is for writes: later callers start a new load instead of joining one that may have
+ * read the old state, and the superseded load does not publish its result (for example into a cache).
+ */
+public class SingleFlight<K, V> {
+
+    private final String name;
+    private final boolean enabled;
+    private final long timeoutNanos;
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public SingleFlight(String name, boolean enabled, Duration timeout) {
+        this.name = name;
+        this.enabled = enabled;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, loader, value -> {
+        });
+    }
+
+    /**
+     * Returns the result of the load in flight for {@code key}, or runs {@code loader}. The caller that ran
+     * the load passes its result to {@code publish} unless the key was forgotten meanwhile.
+     */
+    public V execute(K key, Supplier<V> loader, Consumer<V> publish) {
+        if (!enabled) {
+            executed.increment();
+            V value = loader.get();
+            publish.accept(value);
+            return value;
+        }
+        Flight<V> flight = new Flight<>();
+        Flight<V> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            return await(inFlight, loader);
+        }
+        executed.increment();
+        try {
+            V value = loader.get();
+            // Publish before leaving the map: a forget() that misses the flight comes after the publish
+            flight.complete(value, publish);
+            flights.remove(key, flight);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Detaches the load in flight for {@code key}, if any, from later callers and from publishing.
+     */
+    public void forget(K key) {
+        Flight<V> flight = flights.remove(key);
+        if (flight != null) {
+            flight.supersede();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    private V await(Flight<V> flight, Supplier<V> loader) {
+        try {
+            V value = flight.future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            coalesced.increment();
+            return value;
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            executed.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw (Error) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name + " load", e);
+        }
+    }
+
+    private static final class Flight<V> {
+
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        private boolean superseded;
+
+        synchronized void supersede() {
+            superseded = true;
+        }
+
+        void complete(V value, Consumer<V> publish) {
+            synchronized (this) {
+                if (!superseded) {
+                    publish.accept(value);
+                }
+            }
+            future.complete(value);
+        }
+    }
+}
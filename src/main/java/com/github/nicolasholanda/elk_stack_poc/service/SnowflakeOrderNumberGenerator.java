@@ -0,0 +1,67 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style 63-bit ids: 41 bits of milliseconds since a custom epoch, 10 bits of node id and a
+ * 12-bit per-millisecond sequence, rendered as {@code ORD-} plus 16 upper-case hex digits so the numbers
+ * sort by creation time.
+ * <p>
+ * Timestamp and sequence share one {@link AtomicLong} that only ever moves forward through a CAS, so
+ * callers never block. When the sequence of a millisecond is exhausted, or the wall clock steps back,
+ * the generator keeps counting on its own logical clock and borrows the next millisecond instead of
+ * waiting. Once the wall clock passes the logical clock again, ids follow real time.
+ */
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final String PREFIX = "ORD-";
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final long nodeBits;
+    private final long epochMillis;
+    private final Clock clock;
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeOrderNumberGenerator(int nodeId, Instant epoch, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.epochMillis = epoch.toEpochMilli();
+        this.clock = clock;
+    }
+
+    @Override
+    public String next() {
+        return format(nextId());
+    }
+
+    long nextId() {
+        while (true) {
+            long last = state.get();
+            long now = clock.millis() - epochMillis;
+            long next = now > last >>> SEQUENCE_BITS ? now << SEQUENCE_BITS : last + 1;
+            if (state.compareAndSet(last, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | nodeBits
+                        | next & ((1L << SEQUENCE_BITS) - 1);
+            }
+        }
+    }
+
+    static String format(long id) {
+        char[] chars = new char[PREFIX.length() + 16];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = HEX[(int) id & 0xF];
+            id >>>= 4;
+        }
+        return new String(chars);
+    }
+}
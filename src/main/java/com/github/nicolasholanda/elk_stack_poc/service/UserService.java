@@ -1,14 +1,34 @@
 package com.github.nicolasholanda.elk_stack_poc.service;
 
+import com.github.nicolasholanda.elk_stack_poc.config.CacheConfig;
+import com.github.nicolasholanda.elk_stack_poc.config.ReadWriteRoutingDataSource;
+import com.github.nicolasholanda.elk_stack_poc.model.CursorPage;
+import com.github.nicolasholanda.elk_stack_poc.model.KeysetCursor;
 import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.repository.UserFieldRepository;
 import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.v;
 
 @Slf4j
 @Service
@@ -16,67 +36,201 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final SingleFlight<Long, Optional<User>> userByIdFlight;
+    private final SingleFlight<String, Optional<User>> userByEmailFlight;
 
     public User createUser(User user) {
-        log.info("Creating new user with email: {}", user.getEmail());
+        log.info("Creating new user with email: {}", v("email", user.getEmail()));
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
 
         try {
             User savedUser = userRepository.save(user);
-            log.info("User created successfully with id: {}", savedUser.getId());
+            log.info("User created successfully with id: {}", v("user_id", savedUser.getId()));
+            cache(savedUser);
             return savedUser;
         } catch (Exception e) {
-            log.error("Error creating user with email: {}", user.getEmail(), e);
+            log.error("Error creating user with email: {}", v("email", user.getEmail()), e);
             throw new RuntimeException("Failed to create user", e);
         }
     }
 
+    /**
+     * Cache misses share one load per id. The load always reads the primary, so a caller that has to see
+     * its own writes can join a load started by any other caller.
+     */
     public Optional<User> getUserById(Long id) {
-        log.debug("Fetching user with id: {}", id);
-        return userRepository.findById(id);
+        log.debug("Fetching user with id: {}", v("user_id", id));
+        User cached = usersById().get(id, User.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return userByIdFlight.execute(id, () -> ReadWriteRoutingDataSource.onPrimary(() -> userRepository.findById(id)),
+                user -> user.ifPresent(this::cache));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<User> getAllUsers(String cursor, int limit) {
+        log.debug("Fetching users page after cursor: {} with limit: {}", cursor, limit);
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<User> users;
+        if (cursor == null) {
+            users = userRepository.findAllByOrderByCreatedAtAscIdAsc(fetchLimit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            users = userRepository.findPageAfter(after.createdAt(), after.id(), fetchLimit);
+        }
+
+        if (users.size() <= limit) {
+            return new CursorPage<>(users, null);
+        }
+        List<User> page = users.subList(0, limit);
+        User last = page.get(limit - 1);
+        return new CursorPage<>(page, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Keyset page with only the requested fields. The keyset columns are always selected for the cursor
+     * and dropped from the rows again if they were not requested.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> getAllUsers(String cursor, int limit, String fields) {
+        log.debug("Fetching fields {} of users page after cursor: {} with limit: {}", fields, cursor, limit);
+        Set<String> selected = UserFieldRepository.USER_FIELDS.parse(fields);
+        Set<String> fetched = new LinkedHashSet<>(selected);
+        fetched.add("createdAt");
+        fetched.add("id");
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        List<Map<String, Object>> rows = userRepository.findFieldsPage(after, fetched, Limit.of(limit + 1));
+
+        String next = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Map<String, Object> last = rows.get(limit - 1);
+            next = new KeysetCursor((LocalDateTime) last.get("createdAt"), (Long) last.get("id")).encode();
+        }
+        rows.forEach(row -> row.keySet().retainAll(selected));
+        return new CursorPage<>(rows, next);
     }
 
-    public List<User> getAllUsers() {
-        log.debug("Fetching all users");
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<User> consumer) {
+        log.debug("Streaming all users");
+        try (Stream<User> users = userRepository.streamAllOrdered()) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                entityManager.detach(user);
+            });
+        }
     }
 
     public Optional<User> getUserByEmail(String email) {
-        log.debug("Fetching user with email: {}", email);
-        return userRepository.findByEmail(email);
+        log.debug("Fetching user with email: {}", v("email", email));
+        Long id = usersByEmail().get(email, Long.class);
+        if (id != null) {
+            User cached = usersById().get(id, User.class);
+            if (cached != null && email.equals(cached.getEmail())) {
+                return Optional.of(cached);
+            }
+        }
+        return userByEmailFlight.execute(email,
+                () -> ReadWriteRoutingDataSource.onPrimary(() -> userRepository.findByEmail(email)),
+                user -> user.ifPresent(this::cache));
     }
 
+    @Transactional
     public User updateUser(Long id, User userDetails) {
-        log.info("Updating user with id: {}", id);
+        log.info("Updating user with id: {}", v("user_id", id));
+
+        LocalDateTime now = LocalDateTime.now();
+        User previous = userRepository.updateDetails(id, userDetails.getVersion(), userDetails.getName(),
+                        userDetails.getEmail(), userDetails.getPhone(), now)
+                .orElseThrow(() -> notWritten(id, userDetails.getVersion()));
+        User updated = previous.toBuilder()
+                .name(userDetails.getName())
+                .email(userDetails.getEmail())
+                .phone(userDetails.getPhone())
+                .updatedAt(now)
+                .version(previous.getVersion() + 1)
+                .build();
+        evict(id, previous.getEmail());
+        log.info("User updated successfully with id: {}", v("user_id", id));
+        return updated;
+    }
+
+    @Transactional
+    public void deleteUser(Long id) {
+        log.info("Deleting user with id: {}", v("user_id", id));
 
+        User existing = userRepository.deleteUser(id).orElseThrow(() -> {
+            log.warn("User not found for deletion with id: {}", v("user_id", id));
+            return new RuntimeException("User not found with id: " + id);
+        });
+        evict(id, existing.getEmail());
+        log.info("User deleted successfully with id: {}", v("user_id", id));
+    }
+
+    /**
+     * The conditional update matched no row: the user does not exist, or (with an expected version) is at
+     * another version. Only this failure path reads the user.
+     */
+    private RuntimeException notWritten(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return notFound(id);
+        }
         return userRepository.findById(id)
-                .map(user -> {
-                    log.debug("User found, updating details for id: {}", id);
-                    user.setName(userDetails.getName());
-                    user.setEmail(userDetails.getEmail());
-                    user.setPhone(userDetails.getPhone());
-                    user.setUpdatedAt(LocalDateTime.now());
-                    User updated = userRepository.save(user);
-                    log.info("User updated successfully with id: {}", id);
-                    return updated;
+                .<RuntimeException>map(user -> {
+                    log.warn("User {} is at version {}, request expected {}", v("user_id", id), user.getVersion(), expectedVersion);
+                    return new OptimisticLockingFailureException("User " + id + " is at version "
+                            + user.getVersion() + ", expected " + expectedVersion);
                 })
-                .orElseThrow(() -> {
-                    log.warn("User not found with id: {}", id);
-                    return new RuntimeException("User not found with id: " + id);
-                });
+                .orElseGet(() -> notFound(id));
     }
 
-    public void deleteUser(Long id) {
-        log.info("Deleting user with id: {}", id);
+    private RuntimeException notFound(Long id) {
+        log.warn("User not found with id: {}", v("user_id", id));
+        return new RuntimeException("User not found with id: " + id);
+    }
 
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
-            log.info("User deleted successfully with id: {}", id);
-        } else {
-            log.warn("User not found for deletion with id: {}", id);
-            throw new RuntimeException("User not found with id: " + id);
+    private void cache(User user) {
+        usersById().put(user.getId(), user);
+        if (user.getEmail() != null) {
+            usersByEmail().put(user.getEmail(), user.getId());
         }
     }
-}
 
+    /**
+     * Evicts now and again once the transaction completes: a read between the two still sees the old row,
+     * so whatever it cached or is still loading is dropped as well.
+     */
+    private void evict(Long id, String email) {
+        evictNow(id, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(id, email);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long id, String email) {
+        userByIdFlight.forget(id);
+        usersById().evict(id);
+        if (email != null) {
+            userByEmailFlight.forget(email);
+            usersByEmail().evict(email);
+        }
+    }
+
+    private Cache usersById() {
+        return cacheManager.getCache(CacheConfig.USERS);
+    }
+
+    private Cache usersByEmail() {
+        return cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+    }
+}
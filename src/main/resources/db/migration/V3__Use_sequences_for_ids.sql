@@ -0,0 +1,10 @@
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+
+-- Hibernate's pooled optimizer (allocationSize = 50) takes a fetched value other than the initial 1 as the top
+-- of its block and hands out the 49 ids below it first, so the first value has to be MAX(id) + 50
+ALTER SEQUENCE users_seq RESTART WITH (SELECT CASE WHEN MAX(id) IS NULL THEN 1 ELSE MAX(id) + 50 END FROM users);
+ALTER SEQUENCE orders_seq RESTART WITH (SELECT CASE WHEN MAX(id) IS NULL THEN 1 ELSE MAX(id) + 50 END FROM orders);
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY;
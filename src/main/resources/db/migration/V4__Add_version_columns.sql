@@ -0,0 +1,2 @@
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE orders ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
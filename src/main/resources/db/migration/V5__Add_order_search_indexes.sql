@@ -0,0 +1,9 @@
+-- Indexes for GET /api/orders/search. Every index ends in the sort column and id where that is the usual
+-- order, so a filtered page is read in index order and stops after the page instead of sorting all matches.
+-- (created_at, id) alone comes with V6.
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at, id);
+CREATE INDEX idx_orders_status_created ON orders (status, created_at, id);
+CREATE INDEX idx_orders_updated ON orders (updated_at, id);
+CREATE INDEX idx_orders_amount ON orders (total_amount, id);
+-- Prefix LIKE 'abc%' becomes a range on this index
+CREATE INDEX idx_orders_description ON orders (description, id);
@@ -0,0 +1,4 @@
+-- GET /api/users and GET /api/orders page on (created_at, id), see findPageAfter. With these indexes a page
+-- is read in index order from the cursor on and stops after the page instead of sorting the whole table.
+CREATE INDEX idx_users_created ON users (created_at, id);
+CREATE INDEX idx_orders_created ON orders (created_at, id);
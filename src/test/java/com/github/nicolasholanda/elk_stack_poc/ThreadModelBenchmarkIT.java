@@ -0,0 +1,167 @@
+package com.github.nicolasholanda.elk_stack_poc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the same closed-loop mix of existing endpoints against the app on platform threads and on
+ * virtual threads, and reports throughput, p99 and the number of virtual-thread pinning events
+ * (JFR {@code jdk.VirtualThreadPinned}) seen during the virtual-thread run.
+ */
+class ThreadModelBenchmarkIT {
+
+    private static final Logger results = LoggerFactory.getLogger("benchmark." + ThreadModelBenchmarkIT.class.getSimpleName());
+
+    private static final int CONCURRENCY = 400;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(20);
+    private static final int USERS = 50;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run("platform", false);
+        Result virtual = run("virtual", true);
+
+        results.info("Thread model comparison ({} concurrent clients, {}s):", CONCURRENCY, MEASUREMENT.toSeconds());
+        results.info("  platform: {} req/s, p50 {}ms, p99 {}ms, errors {}",
+                platform.throughput(), platform.p50Millis(), platform.p99Millis(), platform.errors());
+        results.info("  virtual:  {} req/s, p50 {}ms, p99 {}ms, errors {}, pinned events {}",
+                virtual.throughput(), virtual.p50Millis(), virtual.p99Millis(), virtual.errors(), virtual.pinnedEvents());
+        assertEquals(0, virtual.pinnedEvents(), "Virtual threads were pinned while blocking");
+    }
+
+    private Result run(String mode, boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ElkStackPocApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + mode,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "app.concurrency-limit.enabled=false",
+                        "logging.level.com.github.nicolasholanda.elk_stack_poc=WARN")
+                .profiles(virtualThreads ? "virtual-threads" : "default")
+                .run();
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             RecordingStream pinning = new RecordingStream()) {
+
+            AtomicLong pinnedEvents = new AtomicLong();
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1));
+            pinning.onEvent("jdk.VirtualThreadPinned", event -> pinnedEvents.incrementAndGet());
+            pinning.startAsync();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            long[] userIds = seedUsers(client, baseUrl);
+
+            drive(client, baseUrl, userIds, WARMUP);
+            pinnedEvents.set(0);
+            Result result = drive(client, baseUrl, userIds, MEASUREMENT);
+            return result.withPinnedEvents(pinnedEvents.get());
+        }
+    }
+
+    private long[] seedUsers(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        long[] ids = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            String body = "{\"name\":\"Bench User " + i + "\",\"email\":\"bench" + i + "@example.com\"}";
+            HttpResponse<String> response = client.send(post(baseUrl + "/api/users", body), HttpResponse.BodyHandlers.ofString());
+            JsonNode user = objectMapper.readTree(response.body());
+            ids[i] = user.get("id").asLong();
+        }
+        return ids;
+    }
+
+    private Result drive(HttpClient client, String baseUrl, long[] userIds, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long[] latencies = new long[4_000_000];
+        AtomicInteger recorded = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        long userId = userIds[random.nextInt(userIds.length)];
+                        HttpRequest request = switch (random.nextInt(4)) {
+                            case 0 -> post(baseUrl + "/api/orders",
+                                    "{\"userId\":" + userId + ",\"status\":\"PENDING\",\"totalAmount\":10.5}");
+                            case 1 -> get(baseUrl + "/api/orders/user/" + userId);
+                            case 2 -> get(baseUrl + "/api/users/" + userId);
+                            default -> get(baseUrl + "/api/orders?limit=20");
+                        };
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        int slot = recorded.getAndIncrement();
+                        if (slot < latencies.length) {
+                            latencies[slot] = System.nanoTime() - start;
+                        }
+                    }
+                });
+            }
+        }
+
+        int count = Math.min(recorded.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Result(
+                Math.round(count / (double) duration.toSeconds()),
+                TimeUnit.NANOSECONDS.toMillis(sorted[(int) (count * 0.50)]),
+                TimeUnit.NANOSECONDS.toMillis(sorted[Math.min(count - 1, (int) (count * 0.99))]),
+                errors.sum(),
+                0);
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private record Result(long throughput, long p50Millis, long p99Millis, long errors, long pinnedEvents) {
+
+        Result withPinnedEvents(long pinned) {
+            return new Result(throughput, p50Millis, p99Millis, errors, pinned);
+        }
+    }
+}
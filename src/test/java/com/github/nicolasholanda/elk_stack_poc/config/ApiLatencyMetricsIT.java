@@ -0,0 +1,96 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ApiLatencyMetricsIT {
+
+    private static final String ORDER_ROUTE = "/api/orders/{id}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = userRepository.save(User.builder()
+                .name("Metrics User")
+                .email("metrics@example.com")
+                .phone("1234567890")
+                .build());
+        order = orderRepository.save(Order.builder()
+                .userId(user.getId())
+                .orderNumber("ORD-METRICS")
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("10.00"))
+                .build());
+    }
+
+    @Test
+    void testRequestsAreTaggedWithTheRouteTemplateMethodAndStatusClass() throws Exception {
+        long found = requestCount("GET", "2xx");
+        long notFound = requestCount("GET", "4xx");
+
+        mockMvc.perform(get("/api/orders/{id}", order.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/{id}", order.getId() + 1000)).andExpect(status().isNotFound());
+
+        assertEquals(found + 1, requestCount("GET", "2xx"));
+        assertEquals(notFound + 1, requestCount("GET", "4xx"));
+        assertNull(meterRegistry.find(MetricsConfig.API_REQUESTS).tag("route", "/api/orders/" + order.getId()).timer(),
+                "the raw path must not become a tag value");
+    }
+
+    @Test
+    void testServiceCallsAreTimed() throws Exception {
+        long before = serviceCount("getOrderById");
+
+        mockMvc.perform(get("/api/orders/{id}", order.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/{id}", order.getId())).andExpect(status().isOk());
+
+        assertEquals(before + 2, serviceCount("getOrderById"));
+    }
+
+    private long requestCount(String method, String statusClass) {
+        Timer timer = meterRegistry.find(MetricsConfig.API_REQUESTS)
+                .tags("route", ORDER_ROUTE, "method", method, "status", statusClass)
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private long serviceCount(String method) {
+        Timer timer = meterRegistry.find(MetricsConfig.API_SERVICE)
+                .tags("service", "OrderService", "method", method, "exception", "none")
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
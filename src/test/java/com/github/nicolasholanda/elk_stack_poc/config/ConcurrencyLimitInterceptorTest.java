@@ -0,0 +1,119 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shedsReadsOverTheLimitWithoutBlockingWrites() {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(properties(4, 2), meterRegistry);
+        List<MockHttpServletRequest> reads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/orders");
+            assertTrue(interceptor.preHandle(read, new MockHttpServletResponse(), this));
+            reads.add(read);
+        }
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/orders"), rejected, this));
+        assertEquals(503, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/orders"), new MockHttpServletResponse(), this));
+
+        MockHttpServletResponse completed = new MockHttpServletResponse();
+        interceptor.afterCompletion(reads.getFirst(), completed, this, null);
+        interceptor.afterCompletion(reads.getFirst(), completed, this, null);
+        assertEquals(3, interceptor.reads().getInFlight());
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/orders"), new MockHttpServletResponse(), this));
+
+        assertEquals(4, meterRegistry.get("api.concurrency.limit").tag("kind", "read").gauge().value());
+        assertEquals(4, meterRegistry.get("api.concurrency.in_flight").tag("kind", "read").gauge().value());
+        assertEquals(1, meterRegistry.get("api.concurrency.in_flight").tag("kind", "write").gauge().value());
+        assertEquals(1, meterRegistry.get("api.concurrency.rejected").tag("kind", "read").functionCounter().count());
+    }
+
+    @Test
+    void streamsReturnTheirPermitWhenTheHandlerReturns() {
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(properties(1, 1), meterRegistry);
+        MockHttpServletRequest stream = new MockHttpServletRequest("GET", "/api/orders/changes");
+        assertTrue(interceptor.preHandle(stream, new MockHttpServletResponse(), this));
+        interceptor.afterConcurrentHandlingStarted(stream, new MockHttpServletResponse(), this);
+
+        assertEquals(0, interceptor.reads().getInFlight());
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/orders"), new MockHttpServletResponse(), this));
+    }
+
+    @Test
+    void limitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                new ConcurrencyLimitProperties.Limit(20, 4, 200), properties(20, 20));
+
+        saturate(limit, 40, 10 * MILLIS, false);
+        int grown = limit.getLimit();
+        assertTrue(grown > 40, "limit should grow while latency is flat, was " + grown);
+
+        saturate(limit, 10, 100 * MILLIS, false);
+        int shrunk = limit.getLimit();
+        assertTrue(shrunk < grown * 2 / 3, "limit should shrink once latency rises, was " + grown + " then " + shrunk);
+
+        saturate(limit, 5, 1 * MILLIS, true);
+        assertTrue(limit.getLimit() < shrunk, "failures should back off, was " + shrunk + " then " + limit.getLimit());
+    }
+
+    @Test
+    void limitDoesNotGrowWhenMostPermitsAreUnused() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                new ConcurrencyLimitProperties.Limit(20, 4, 200), properties(20, 20));
+
+        for (int i = 0; i < 50 * 20; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(10 * MILLIS, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    /**
+     * Runs {@code windows} windows with every permit taken and the given latency per request.
+     */
+    private static void saturate(AdaptiveConcurrencyLimit limit, int windows, long rttNanos, boolean failed) {
+        for (int window = 0; window < windows; window++) {
+            int held = 0;
+            while (limit.tryAcquire()) {
+                held++;
+            }
+            for (int i = 0; i < 50 && held > 0; i++) {
+                limit.release(rttNanos, failed);
+                held--;
+                if (limit.tryAcquire()) {
+                    held++;
+                }
+            }
+            for (; held > 0; held--) {
+                limit.release();
+            }
+        }
+    }
+
+    private static ConcurrencyLimitProperties properties(int reads, int writes) {
+        return new ConcurrencyLimitProperties(true,
+                new ConcurrencyLimitProperties.Limit(reads, 1, reads),
+                new ConcurrencyLimitProperties.Limit(writes, 1, writes),
+                1.5, 0.2, 0.9, 50, 20, 503, Duration.ofSeconds(2));
+    }
+}
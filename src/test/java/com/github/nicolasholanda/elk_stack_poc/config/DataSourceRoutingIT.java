@@ -0,0 +1,160 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Two H2 databases stand in for primary and replica. Nothing replicates between them, which makes it
+ * visible where each read was served from.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=" + DataSourceRoutingIT.REPLICA_URL + ";IFEXISTS=TRUE",
+        "app.datasource.replica.migrate=true",
+        "app.datasource.replica.connection-timeout=250ms",
+        "app.datasource.replica.health-check-interval=200ms"})
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class DataSourceRoutingIT {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    // Creates the replica database up front. The application connects with IFEXISTS=TRUE, so it cannot
+    // silently recreate an empty replica after the shutdown in the last test.
+    private static final JdbcTemplate REPLICA = createReplica();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routing;
+
+    @Test
+    @Order(1)
+    void testReadOnlyTransactionsAreServedByTheReplica() throws Exception {
+        REPLICA.update("insert into users (id, name, email) values (1000000, 'Replica Only', 'replica-only@example.com')");
+
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].email", hasItem("replica-only@example.com")));
+        // Lookups that fill the entity caches read the primary
+        mockMvc.perform(get("/api/users/email/{email}", "replica-only@example.com"))
+                .andExpect(status().isNotFound());
+        assertEquals(0, new JdbcTemplate(primaryDataSource)
+                .queryForObject("select count(*) from users where email = 'replica-only@example.com'", Integer.class));
+    }
+
+    @Test
+    @Order(2)
+    void testClientReadsItsOwnWritesFromThePrimary() throws Exception {
+        Cookie window = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Writer\",\"email\":\"writer@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        mockMvc.perform(get("/api/users").cookie(window))
+                .andExpect(jsonPath("$[*].email", contains("writer@example.com")));
+        mockMvc.perform(get("/api/users"))
+                .andExpect(jsonPath("$[*].email", not(hasItem("writer@example.com"))));
+        mockMvc.perform(get("/api/users").cookie(new Cookie(ReadYourWritesFilter.COOKIE, "0")))
+                .andExpect(jsonPath("$[*].email", not(hasItem("writer@example.com"))));
+    }
+
+    @Test
+    @Order(3)
+    void testStreamInsideTheWindowIsServedByThePrimary() throws Exception {
+        // The stream is written on the task executor, not on the request thread the window was set on
+        Cookie window = new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() + 60_000));
+
+        assertTrue(streamUsers(get("/api/users").cookie(window)).contains("writer@example.com"));
+        assertFalse(streamUsers(get("/api/users")).contains("writer@example.com"));
+    }
+
+    @Test
+    @Order(4)
+    void testLookupByIdAfterAWriteIsNotCachedFromTheReplica() throws Exception {
+        String created = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Before\",\"email\":\"renamed@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+        // The replica still has the row as it was before the update below
+        REPLICA.update("insert into users (id, name, email) values (?, 'Before', 'renamed@example.com')", id);
+
+        Cookie window = mockMvc.perform(put("/api/users/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"After\",\"email\":\"renamed@example.com\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", equalTo("After")));
+        mockMvc.perform(get("/api/users/{id}", id).cookie(window))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", equalTo("After")));
+
+        mockMvc.perform(delete("/api/users/{id}", id))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @Order(5)
+    void testReadsFallBackToThePrimaryWhenTheReplicaIsDown() throws Exception {
+        assertTrue(routing.isReplicaAvailable());
+        REPLICA.execute("SHUTDOWN");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (routing.isReplicaAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(routing.isReplicaAvailable());
+
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].email", contains("writer@example.com")));
+    }
+
+    private String streamUsers(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request.accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private static JdbcTemplate createReplica() {
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("select 1");
+        return replica;
+    }
+}
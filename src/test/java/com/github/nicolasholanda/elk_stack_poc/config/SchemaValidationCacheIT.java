@@ -0,0 +1,48 @@
+package com.github.nicolasholanda.elk_stack_poc.config;
+
+import com.github.nicolasholanda.elk_stack_poc.ElkStackPocApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaValidationCacheIT {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void validatesOnceThenSkipsWhileMigrationsAndEntitiesAreUnchanged() throws Exception {
+        Path cache = directory.resolve("schema-validation.sha256");
+
+        assertEquals("validate", schemaAction(cache, "first"));
+        assertTrue(Files.exists(cache));
+        String fingerprint = Files.readString(cache);
+
+        assertEquals("none", schemaAction(cache, "second"));
+        assertEquals(fingerprint, Files.readString(cache));
+
+        Files.writeString(cache, "stale");
+        assertEquals("validate", schemaAction(cache, "third"));
+        assertEquals(fingerprint, Files.readString(cache));
+    }
+
+    private static Object schemaAction(Path cache, String database) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ElkStackPocApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:schema-cache-" + database,
+                        "app.startup.schema-validation-cache=" + cache)
+                .run()) {
+            return context.getBean(EntityManagerFactory.class).getProperties().get("hibernate.hbm2ddl.auto");
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.nicolasholanda.elk_stack_poc.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import com.github.nicolasholanda.elk_stack_poc.service.OrderAggregates;
+import com.github.nicolasholanda.elk_stack_poc.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderAggregateControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private OrderAggregates orderAggregates;
+
+    @Autowired
+    private OrderService orderService;
+
+    private Long alice;
+    private Long bob;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        orderAggregates.rebuild();
+        alice = userRepository.save(User.builder().name("Alice").email("alice@example.com").build()).getId();
+        bob = userRepository.save(User.builder().name("Bob").email("bob@example.com").build()).getId();
+    }
+
+    @Test
+    void testAggregatesFollowEveryWritePath() throws Exception {
+        long first = createOrder(alice, Order.OrderStatus.PENDING, "10.00");
+        long second = createOrder(alice, Order.OrderStatus.PENDING, "5.50");
+        long third = createOrder(bob, Order.OrderStatus.CONFIRMED, "20.00");
+
+        mockMvc.perform(put("/api/orders/{id}/status", first).param("status", "CONFIRMED"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/orders/{id}", second)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Repriced\",\"totalAmount\":7.25}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/orders/{id}", third))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                Order.builder().userId(bob).totalAmount(new BigDecimal("1.00")).build(),
+                                Order.builder().userId(bob).totalAmount(new BigDecimal("1.00")).build()))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/orders/aggregates/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.PENDING.orderCount", equalTo(3)))
+                .andExpect(jsonPath("$.PENDING.totalAmount", equalTo(9.25)))
+                .andExpect(jsonPath("$.CONFIRMED.orderCount", equalTo(1)))
+                .andExpect(jsonPath("$.CONFIRMED.totalAmount", equalTo(10.0)));
+        mockMvc.perform(get("/api/orders/aggregates/users/{userId}", alice))
+                .andExpect(jsonPath("$.orderCount", equalTo(2)))
+                .andExpect(jsonPath("$.totalAmount", equalTo(17.25)));
+        mockMvc.perform(get("/api/orders/aggregates/users/{userId}", bob))
+                .andExpect(jsonPath("$.orderCount", equalTo(2)))
+                .andExpect(jsonPath("$.totalAmount", equalTo(2.0)));
+        String today = LocalDate.now().toString();
+        mockMvc.perform(get("/api/orders/aggregates/days").param("from", today).param("to", today))
+                .andExpect(jsonPath("$['" + today + "'].orderCount", equalTo(4)))
+                .andExpect(jsonPath("$['" + today + "'].totalAmount", equalTo(19.25)));
+
+        mockMvc.perform(post("/api/orders/status-transitions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"targetStatus\":\"CANCELLED\",\"userId\":" + bob + "}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/aggregates/status"))
+                .andExpect(jsonPath("$.CANCELLED.orderCount", equalTo(2)))
+                .andExpect(jsonPath("$.PENDING.orderCount", equalTo(1)));
+
+        mockMvc.perform(get("/api/orders/aggregates/consistency"))
+                .andExpect(jsonPath("$.consistent", equalTo(true)))
+                .andExpect(jsonPath("$.mismatches", empty()));
+    }
+
+    @Test
+    void testConcurrentWritesStayConsistent() throws Exception {
+        try (ExecutorService writers = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 400; i++) {
+                Long userId = i % 2 == 0 ? alice : bob;
+                writers.submit(() -> orderService.createOrder(Order.builder()
+                        .userId(userId)
+                        .status(Order.OrderStatus.PENDING)
+                        .totalAmount(new BigDecimal("0.01"))
+                        .build()));
+            }
+        }
+
+        mockMvc.perform(get("/api/orders/aggregates/status"))
+                .andExpect(jsonPath("$.PENDING.orderCount", equalTo(400)))
+                .andExpect(jsonPath("$.PENDING.totalAmount", equalTo(4.0)));
+        mockMvc.perform(get("/api/orders/aggregates/consistency"))
+                .andExpect(jsonPath("$.consistent", equalTo(true)));
+    }
+
+    @Test
+    void testConsistencyCheckDetectsWritesOutsideTheService() throws Exception {
+        createOrder(alice, Order.OrderStatus.PENDING, "10.00");
+        orderRepository.save(Order.builder()
+                .userId(alice)
+                .orderNumber("ORD-DIRECT")
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("3.00"))
+                .build());
+
+        mockMvc.perform(get("/api/orders/aggregates/consistency"))
+                .andExpect(jsonPath("$.consistent", equalTo(false)))
+                .andExpect(jsonPath("$.mismatches", hasSize(3)));
+
+        orderAggregates.rebuild();
+        mockMvc.perform(get("/api/orders/aggregates/consistency"))
+                .andExpect(jsonPath("$.consistent", equalTo(true)));
+        mockMvc.perform(get("/api/orders/aggregates/users/{userId}", alice))
+                .andExpect(jsonPath("$.orderCount", equalTo(2)))
+                .andExpect(jsonPath("$.totalAmount", equalTo(13.0)));
+    }
+
+    private long createOrder(Long userId, Order.OrderStatus status, String amount) throws Exception {
+        String body = mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Order.builder()
+                                .userId(userId)
+                                .status(status)
+                                .totalAmount(new BigDecimal(amount))
+                                .build())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode order = objectMapper.readTree(body);
+        return order.get("id").asLong();
+    }
+}
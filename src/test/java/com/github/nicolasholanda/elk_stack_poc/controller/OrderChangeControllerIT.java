@@ -0,0 +1,178 @@
+package com.github.nicolasholanda.elk_stack_poc.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.StatusTransitionRequest;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import com.github.nicolasholanda.elk_stack_poc.service.OrderChangeJournal;
+import com.github.nicolasholanda.elk_stack_poc.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OrderChangeControllerIT {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderChangeJournal orderChangeJournal;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        userId = userRepository.save(User.builder().name("Alice").email("alice@example.com").build()).getId();
+    }
+
+    @Test
+    void testStreamsCommittedChangesAndResumes() throws Exception {
+        BlockingQueue<JsonNode> live = open("/api/orders/changes?after=" + orderChangeJournal.lastSequence(),
+                "text/event-stream", null);
+
+        Order created = orderService.createOrder(Order.builder()
+                .userId(userId)
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("10.00"))
+                .build());
+        orderService.updateOrderStatus(created.getId(), Order.OrderStatus.CONFIRMED);
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> orderService.updateOrderStatus(created.getId(), Order.OrderStatus.SHIPPED, 0L));
+        orderService.updateOrder(created.getId(), Order.builder().description("Gift wrap").totalAmount(new BigDecimal("12.00")).build());
+        orderService.transitionOrders(new StatusTransitionRequest(Order.OrderStatus.CANCELLED, null, null, null, userId, null));
+        orderService.deleteOrder(created.getId());
+
+        List<JsonNode> events = take(live, 5);
+        assertEquals(List.of("CREATED", "STATUS_CHANGED", "UPDATED", "STATUS_CHANGED", "DELETED"),
+                events.stream().map(event -> event.get("type").asText()).toList());
+        for (JsonNode event : events) {
+            assertEquals(created.getId(), event.get("orderId").asLong());
+            assertEquals(userId, event.get("userId").asLong());
+        }
+        long first = events.getFirst().get("sequence").asLong();
+        for (int i = 1; i < events.size(); i++) {
+            assertEquals(first + i, events.get(i).get("sequence").asLong());
+        }
+        assertEquals("CONFIRMED", events.get(1).get("status").asText());
+        assertEquals(12.0, events.get(2).get("totalAmount").asDouble());
+        assertEquals("CONFIRMED", events.get(3).get("previousStatus").asText());
+        assertEquals("CANCELLED", events.get(3).get("status").asText());
+        assertEquals(3, events.get(3).get("version").asLong());
+
+        BlockingQueue<JsonNode> resumed = open("/api/orders/changes", "text/event-stream", first + 1);
+        assertEquals(List.of("UPDATED", "STATUS_CHANGED", "DELETED"),
+                take(resumed, 3).stream().map(event -> event.get("type").asText()).toList());
+
+        BlockingQueue<JsonNode> ndjson = open("/api/orders/changes?after=" + (first - 1) + "&userId=" + userId,
+                "application/x-ndjson", null);
+        assertEquals(first, take(ndjson, 1).getFirst().get("sequence").asLong());
+        assertTrue(take(open("/api/orders/changes?userId=" + (userId + 1) + "&after=" + (first - 1),
+                "application/x-ndjson", null), 0).isEmpty());
+    }
+
+    @Test
+    void testBulkTransitionEmitsOneEventPerMovedOrder() throws Exception {
+        long after = orderChangeJournal.lastSequence();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(orderService.createOrder(Order.builder()
+                    .userId(userId)
+                    .status(i == 2 ? Order.OrderStatus.DELIVERED : Order.OrderStatus.PENDING)
+                    .totalAmount(BigDecimal.ONE)
+                    .build()).getId());
+        }
+        orderService.transitionOrders(new StatusTransitionRequest(Order.OrderStatus.CONFIRMED,
+                Set.of(Order.OrderStatus.PENDING), null, null, null, ids));
+
+        BlockingQueue<JsonNode> stream = open("/api/orders/changes?after=" + (after + 3), "application/x-ndjson", null);
+        List<JsonNode> transitions = take(stream, 2);
+        assertEquals(Set.copyOf(ids.subList(0, 2)),
+                Set.copyOf(transitions.stream().map(event -> event.get("orderId").asLong()).toList()));
+        assertNull(stream.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Opens a stream and collects the JSON payload of every event on a background thread.
+     */
+    private BlockingQueue<JsonNode> open(String path, String accept, Long lastEventId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", Long.toString(lastEventId));
+        }
+        BlockingQueue<JsonNode> events = new LinkedBlockingQueue<>();
+        httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines())
+                .thenAccept(response -> {
+                    try (Stream<String> lines = response.body()) {
+                        lines.map(line -> line.startsWith("data:") ? line.substring(5) : line)
+                                .filter(line -> line.startsWith("{"))
+                                .forEach(line -> events.add(parse(line)));
+                    }
+                });
+        return events;
+    }
+
+    private List<JsonNode> take(BlockingQueue<JsonNode> events, int count) throws InterruptedException {
+        List<JsonNode> taken = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            JsonNode event = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(event, "Expected " + count + " events, got " + taken.size());
+            taken.add(event);
+        }
+        if (count == 0) {
+            assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+        }
+        return taken;
+    }
+
+    private JsonNode parse(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
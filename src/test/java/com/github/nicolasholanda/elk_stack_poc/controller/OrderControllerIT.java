@@ -1,6 +1,7 @@
 package com.github.nicolasholanda.elk_stack_poc.controller;
 
 import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.StatusTransitionRequest;
 import com.github.nicolasholanda.elk_stack_poc.model.User;
 import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
 import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
@@ -9,15 +10,25 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -35,10 +46,14 @@ class OrderControllerIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     void setUp() {
         orderRepository.deleteAll();
         userRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -64,7 +79,7 @@ class OrderControllerIT {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").exists())
                 .andExpect(jsonPath("$.orderNumber").exists())
-                .andExpect(jsonPath("$.orderNumber", matchesPattern("ORD-[A-F0-9]{8}")))
+                .andExpect(jsonPath("$.orderNumber", matchesPattern("ORD-[A-F0-9]{16}")))
                 .andExpect(jsonPath("$.userId", equalTo(savedUser.getId().intValue())))
                 .andExpect(jsonPath("$.createdAt").exists());
     }
@@ -103,6 +118,64 @@ class OrderControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testUpdateOrderStatus_StaleVersionConflicts() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Test User")
+                .email("test@example.com")
+                .build());
+        Order savedOrder = orderRepository.save(Order.builder()
+                .userId(savedUser.getId())
+                .orderNumber("ORD-003")
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("10.00"))
+                .build());
+
+        mockMvc.perform(put("/api/orders/{id}/status", savedOrder.getId())
+                        .param("status", "CONFIRMED")
+                        .param("version", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", equalTo("CONFIRMED")))
+                .andExpect(jsonPath("$.version", equalTo(1)));
+
+        mockMvc.perform(put("/api/orders/{id}/status", savedOrder.getId())
+                        .param("status", "CANCELLED")
+                        .param("version", "0"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(put("/api/orders/{id}/status", savedOrder.getId())
+                        .param("status", "SHIPPED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", equalTo(2)));
+
+        Order stored = orderRepository.findById(savedOrder.getId()).orElseThrow();
+        assertEquals(Order.OrderStatus.SHIPPED, stored.getStatus());
+        assertEquals(2L, stored.getVersion());
+    }
+
+    @Test
+    void testDeleteOrder() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Test User")
+                .email("test@example.com")
+                .build());
+        Order savedOrder = orderRepository.save(Order.builder()
+                .userId(savedUser.getId())
+                .orderNumber("ORD-004")
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("10.00"))
+                .build());
+
+        mockMvc.perform(get("/api/orders/{id}", savedOrder.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/orders/{id}", savedOrder.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/orders/{id}", savedOrder.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/orders/{id}", savedOrder.getId()))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetAllOrders() throws Exception {
         User user1 = User.builder()
@@ -145,5 +218,345 @@ class OrderControllerIT {
                 .andExpect(jsonPath("$[0].orderNumber", equalTo("ORD-003")))
                 .andExpect(jsonPath("$[1].orderNumber", equalTo("ORD-004")));
     }
+
+    @Test
+    void testGetAllOrders_KeysetPagination() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Paged User")
+                .email("paged@example.com")
+                .phone("333333333")
+                .build());
+
+        for (int i = 1; i <= 3; i++) {
+            orderRepository.save(Order.builder()
+                    .userId(savedUser.getId())
+                    .orderNumber("ORD-PAGE-" + i)
+                    .status(Order.OrderStatus.PENDING)
+                    .totalAmount(new BigDecimal("10.00"))
+                    .build());
+        }
+
+        String next = mockMvc.perform(get("/api/orders").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].orderNumber", equalTo("ORD-PAGE-1")))
+                .andExpect(jsonPath("$[1].orderNumber", equalTo("ORD-PAGE-2")))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/api/orders").param("limit", "2").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].orderNumber", equalTo("ORD-PAGE-3")))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void testGetAllOrders_SparseFieldsKeepPaging() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Paged User")
+                .email("paged@example.com")
+                .build());
+        for (int i = 1; i <= 3; i++) {
+            orderRepository.save(Order.builder()
+                    .userId(savedUser.getId())
+                    .orderNumber("ORD-FIELDS-" + i)
+                    .status(Order.OrderStatus.PENDING)
+                    .totalAmount(new BigDecimal("10.00"))
+                    .description("Not requested")
+                    .build());
+        }
+
+        String next = mockMvc.perform(get("/api/orders").param("limit", "2").param("fields", "orderNumber,status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].*", hasSize(2)))
+                .andExpect(jsonPath("$[0].orderNumber", equalTo("ORD-FIELDS-1")))
+                .andExpect(jsonPath("$[0].status", equalTo("PENDING")))
+                .andExpect(jsonPath("$[0].id").doesNotExist())
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/api/orders").param("limit", "2").param("fields", "orderNumber").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].orderNumber", equalTo("ORD-FIELDS-3")));
+    }
+
+    @Test
+    void testGetOrdersByUserId_ProjectionAndSparseFields() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Projection User")
+                .email("projection@example.com")
+                .build());
+        Order savedOrder = orderRepository.save(Order.builder()
+                .userId(savedUser.getId())
+                .orderNumber("ORD-VIEW-1")
+                .status(Order.OrderStatus.CONFIRMED)
+                .totalAmount(new BigDecimal("42.50"))
+                .description("Full view")
+                .build());
+
+        mockMvc.perform(get("/api/orders/user/{userId}", savedUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", equalTo(savedOrder.getId().intValue())))
+                .andExpect(jsonPath("$[0].orderNumber", equalTo("ORD-VIEW-1")))
+                .andExpect(jsonPath("$[0].description", equalTo("Full view")))
+                .andExpect(jsonPath("$[0].createdAt").exists())
+                .andExpect(jsonPath("$[0].version", equalTo(0)));
+
+        mockMvc.perform(get("/api/orders/user/{userId}", savedUser.getId()).param("fields", "id,totalAmount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].*", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", equalTo(savedOrder.getId().intValue())))
+                .andExpect(jsonPath("$[0].totalAmount", equalTo(42.5)));
+
+        mockMvc.perform(get("/api/orders/user/{userId}", savedUser.getId()).param("fields", "id,userId) from User u --"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAllOrders_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/orders").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchOrders_CombinesFiltersAndPagesInSortOrder() throws Exception {
+        User buyer = userRepository.save(User.builder().name("Search User").email("search@example.com").build());
+        User other = userRepository.save(User.builder().name("Other User").email("other@example.com").build());
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 12, 0);
+        for (int i = 1; i <= 6; i++) {
+            Order order = order(buyer.getId(), i % 2 == 0 ? Order.OrderStatus.SHIPPED : Order.OrderStatus.PENDING,
+                    start.plusHours(i));
+            order.setOrderNumber("ORD-SEARCH-" + i);
+            order.setTotalAmount(new BigDecimal(i * 10));
+            order.setDescription(i <= 4 ? "Gift 100% wrapped " + i : "Plain " + i);
+            orderRepository.save(order);
+        }
+        orderRepository.save(order(other.getId(), Order.OrderStatus.PENDING, start.plusHours(2)));
+
+        String next = mockMvc.perform(get("/api/orders/search")
+                        .param("userId", buyer.getId().toString())
+                        .param("status", "PENDING,SHIPPED")
+                        .param("minAmount", "20")
+                        .param("createdFrom", "2025-03-01T13:00:00")
+                        .param("descriptionPrefix", "Gift 100%")
+                        .param("sort", "totalAmount,desc")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].orderNumber", contains("ORD-SEARCH-4", "ORD-SEARCH-3")))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/api/orders/search")
+                        .param("userId", buyer.getId().toString())
+                        .param("status", "PENDING,SHIPPED")
+                        .param("minAmount", "20")
+                        .param("createdFrom", "2025-03-01T13:00:00")
+                        .param("descriptionPrefix", "Gift 100%")
+                        .param("sort", "totalAmount,desc")
+                        .param("limit", "2")
+                        .param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].orderNumber", contains("ORD-SEARCH-2")))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mockMvc.perform(get("/api/orders/search")
+                        .param("status", "SHIPPED")
+                        .param("createdTo", "2025-03-01T16:00:00")
+                        .param("updatedFrom", "2000-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].orderNumber", contains("ORD-SEARCH-2")));
+    }
+
+    @Test
+    void testSearchOrders_RejectsInvalidSortAndForeignCursor() throws Exception {
+        mockMvc.perform(get("/api/orders/search").param("sort", "orderNumber"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/search").param("sort", "createdAt,sideways"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/search").param("status", "LOST"))
+                .andExpect(status().isBadRequest());
+
+        User savedUser = userRepository.save(User.builder().name("Cursor User").email("cursor@example.com").build());
+        for (int i = 0; i < 2; i++) {
+            orderRepository.save(order(savedUser.getId(), Order.OrderStatus.PENDING, LocalDateTime.now()));
+        }
+        String next = mockMvc.perform(get("/api/orders/search").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+        mockMvc.perform(get("/api/orders/search").param("sort", "updatedAt").param("cursor", next))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamAllOrders() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Stream User")
+                .email("stream@example.com")
+                .phone("444444444")
+                .build());
+
+        orderRepository.save(Order.builder()
+                .userId(savedUser.getId())
+                .orderNumber("ORD-STREAM-1")
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("10.00"))
+                .build());
+        orderRepository.save(Order.builder()
+                .userId(savedUser.getId())
+                .orderNumber("ORD-STREAM-2")
+                .status(Order.OrderStatus.SHIPPED)
+                .totalAmount(new BigDecimal("20.00"))
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/orders").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("ORD-STREAM-1", objectMapper.readValue(lines[0], Order.class).getOrderNumber());
+        assertEquals("ORD-STREAM-2", objectMapper.readValue(lines[1], Order.class).getOrderNumber());
+    }
+
+    @Test
+    void testCreateOrdersBatch() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Batch User")
+                .email("batch@example.com")
+                .phone("555555555")
+                .build());
+
+        List<Order> orders = List.of(
+                Order.builder().userId(savedUser.getId()).totalAmount(new BigDecimal("10.00")).build(),
+                Order.builder().userId(savedUser.getId()).totalAmount(new BigDecimal("-1.00")).build(),
+                Order.builder().userId(999_999L).totalAmount(new BigDecimal("5.00")).build(),
+                Order.builder().userId(savedUser.getId()).status(Order.OrderStatus.CONFIRMED).totalAmount(new BigDecimal("20.00")).build());
+
+        mockMvc.perform(post("/api/orders/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(orders)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", equalTo(2)))
+                .andExpect(jsonPath("$.rejected", equalTo(2)))
+                .andExpect(jsonPath("$.items", hasSize(4)))
+                .andExpect(jsonPath("$.items[0].status", equalTo("CREATED")))
+                .andExpect(jsonPath("$.items[0].id").exists())
+                .andExpect(jsonPath("$.items[1].status", equalTo("INVALID")))
+                .andExpect(jsonPath("$.items[2].status", equalTo("INVALID")))
+                .andExpect(jsonPath("$.items[3].status", equalTo("CREATED")))
+                .andExpect(jsonPath("$.items[3].orderNumber").exists());
+
+        assertEquals(2, orderRepository.findByUserId(savedUser.getId()).size());
+    }
+
+    @Test
+    void testCreateOrdersBatch_ReportsNullElementsAsInvalid() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Null Batch User")
+                .email("null-batch@example.com")
+                .build());
+
+        mockMvc.perform(post("/api/orders/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[null, {\"userId\": " + savedUser.getId() + ", \"totalAmount\": 10.00}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", equalTo(1)))
+                .andExpect(jsonPath("$.rejected", equalTo(1)))
+                .andExpect(jsonPath("$.items[0].status", equalTo("INVALID")))
+                .andExpect(jsonPath("$.items[0].error", equalTo("order is required")))
+                .andExpect(jsonPath("$.items[1].status", equalTo("CREATED")));
+
+        assertEquals(1, orderRepository.findByUserId(savedUser.getId()).size());
+    }
+
+    @Test
+    void testTransitionOrders_AppliesLegalTransitionsInChunks() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Lifecycle User")
+                .email("lifecycle@example.com")
+                .build());
+        LocalDateTime stale = LocalDateTime.now().minusDays(2);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            orders.add(order(savedUser.getId(), Order.OrderStatus.PENDING, stale));
+        }
+        orders.add(order(savedUser.getId(), Order.OrderStatus.PENDING, LocalDateTime.now()));
+        orders.add(order(savedUser.getId(), Order.OrderStatus.SHIPPED, stale));
+        orders.add(order(savedUser.getId(), Order.OrderStatus.CONFIRMED, stale));
+        orderRepository.saveAll(orders);
+
+        StatusTransitionRequest request = new StatusTransitionRequest(Order.OrderStatus.CANCELLED,
+                Set.of(Order.OrderStatus.PENDING, Order.OrderStatus.SHIPPED), null,
+                LocalDateTime.now().minusDays(1), null, null);
+
+        mockMvc.perform(post("/api/orders/status-transitions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transitioned", equalTo(1_200)))
+                .andExpect(jsonPath("$.transitionedByStatus.PENDING", equalTo(1_200)))
+                .andExpect(jsonPath("$.illegalStatuses", contains("SHIPPED")));
+
+        Map<Order.OrderStatus, Long> byStatus = orderRepository.findAll().stream()
+                .collect(Collectors.groupingBy(Order::getStatus, Collectors.counting()));
+        assertEquals(Map.of(
+                Order.OrderStatus.CANCELLED, 1_200L,
+                Order.OrderStatus.PENDING, 1L,
+                Order.OrderStatus.SHIPPED, 1L,
+                Order.OrderStatus.CONFIRMED, 1L), byStatus);
+    }
+
+    @Test
+    void testTransitionOrders_ByIdsSkipsIllegalSources() throws Exception {
+        User savedUser = userRepository.save(User.builder()
+                .name("Lifecycle User")
+                .email("lifecycle@example.com")
+                .build());
+        Order shipped = orderRepository.save(order(savedUser.getId(), Order.OrderStatus.SHIPPED, LocalDateTime.now()));
+        Order pending = orderRepository.save(order(savedUser.getId(), Order.OrderStatus.PENDING, LocalDateTime.now()));
+
+        StatusTransitionRequest request = new StatusTransitionRequest(Order.OrderStatus.DELIVERED,
+                null, null, null, null, List.of(shipped.getId(), pending.getId()));
+
+        mockMvc.perform(post("/api/orders/status-transitions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transitioned", equalTo(1)))
+                .andExpect(jsonPath("$.transitionedByStatus.SHIPPED", equalTo(1)));
+
+        Order delivered = orderRepository.findById(shipped.getId()).orElseThrow();
+        assertEquals(Order.OrderStatus.DELIVERED, delivered.getStatus());
+        assertEquals(1L, delivered.getVersion());
+        assertEquals(Order.OrderStatus.PENDING, orderRepository.findById(pending.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testTransitionOrders_RequiresFilter() throws Exception {
+        mockMvc.perform(post("/api/orders/status-transitions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"targetStatus\":\"CANCELLED\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static Order order(Long userId, Order.OrderStatus status, LocalDateTime createdAt) {
+        return Order.builder()
+                .userId(userId)
+                .orderNumber("ORD-T-" + UUID.randomUUID())
+                .status(status)
+                .totalAmount(new BigDecimal("10.00"))
+                .createdAt(createdAt)
+                .build();
+    }
 }
 
@@ -1,16 +1,32 @@
 package com.github.nicolasholanda.elk_stack_poc.controller;
 
 import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
 import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
@@ -25,12 +41,23 @@ class UserControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private OrderRepository orderRepository;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     void setUp() {
+        orderRepository.deleteAll();
         userRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -100,5 +127,106 @@ class UserControllerIT {
                 .andExpect(jsonPath("$[0].name", equalTo("User One")))
                 .andExpect(jsonPath("$[1].name", equalTo("User Two")));
     }
-}
 
+    @Test
+    void testGetAllUsers_SparseFields() throws Exception {
+        userRepository.save(User.builder()
+                .name("User One")
+                .email("user1@example.com")
+                .phone("111111111")
+                .build());
+
+        mockMvc.perform(get("/api/users").param("fields", "name,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].*", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", equalTo("User One")))
+                .andExpect(jsonPath("$[0].email", equalTo("user1@example.com")));
+
+        mockMvc.perform(get("/api/users").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testUpdateUserEmail_EvictsCachedLookups() throws Exception {
+        User user = userRepository.save(User.builder()
+                .name("Cached User")
+                .email("old@example.com")
+                .build());
+
+        mockMvc.perform(get("/api/users/email/{email}", "old@example.com"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isOk());
+
+        User changed = User.builder().name("Cached User").email("new@example.com").build();
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(changed)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/email/{email}", "old@example.com"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/email/{email}", "new@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", equalTo(user.getId().intValue())));
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(jsonPath("$.email", equalTo("new@example.com")));
+
+        mockMvc.perform(delete("/api/users/{id}", user.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:users", "result:hit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(1.0)));
+    }
+
+    @Test
+    void testLookupByEmailOverlappingAnUpdate_DoesNotCacheTheOldUser() throws Exception {
+        User user = userRepository.save(User.builder()
+                .name("Before")
+                .email("overlap@example.com")
+                .build());
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        Thread test = Thread.currentThread();
+        // Holds the lookup after it has read the row and before it caches it. Inert once it has fired.
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> {
+                    if (event.getEntity() instanceof User loaded && "overlap@example.com".equals(loaded.getEmail())
+                            && Thread.currentThread() != test && read.getCount() > 0) {
+                        read.countDown();
+                        try {
+                            updated.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<MvcResult> lookup = reader.submit(() -> mockMvc.perform(get("/api/users/email/{email}", "overlap@example.com"))
+                    .andReturn());
+            assertTrue(read.await(5, TimeUnit.SECONDS));
+
+            User changed = User.builder().name("After").email("overlap@example.com").build();
+            mockMvc.perform(put("/api/users/{id}", user.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(changed)))
+                    .andExpect(status().isOk());
+            updated.countDown();
+            assertEquals(200, lookup.get(5, TimeUnit.SECONDS).getResponse().getStatus());
+        } finally {
+            reader.shutdownNow();
+        }
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(jsonPath("$.name", equalTo("After")));
+        mockMvc.perform(get("/api/users/email/{email}", "overlap@example.com"))
+                .andExpect(jsonPath("$.name", equalTo("After")));
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MarkerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static net.logstash.logback.argument.StructuredArguments.entries;
+import static net.logstash.logback.argument.StructuredArguments.kv;
+import static net.logstash.logback.argument.StructuredArguments.v;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeanLogstashEncoderTest {
+
+    private static final String CUSTOM_FIELDS =
+            "{\"environment\":\"poc\",\"application\":\"elk-stack-poc\",\"service_version\":\"0.0.1-SNAPSHOT\"}";
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("com.github.nicolasholanda.elk_stack_poc.service.OrderService");
+    private final List<AutoCloseable> encoders = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable encoder : encoders) {
+            encoder.close();
+        }
+    }
+
+    @Test
+    void writesTheSameBytesAsLogstashEncoder() {
+        context.putProperty("HOSTNAME", "app-1");
+        for (String timeZone : new String[]{"UTC", "America/Sao_Paulo", "Asia/Kolkata"}) {
+            LogstashEncoder reference = reference(timeZone);
+            LeanLogstashEncoder lean = lean(timeZone);
+            for (LoggingEvent event : events()) {
+                assertEquals(new String(reference.encode(event), StandardCharsets.UTF_8),
+                        new String(lean.encode(event), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void allocatesLessThanLogstashEncoder() {
+        LoggingEvent event = event(Level.INFO, "Order created successfully with id: {}, orderNumber: {}", null,
+                v("order_id", 42L), v("order_number", "ORD-0000A1B2C3D4E5F6"));
+        event.getFormattedMessage();
+        LeanLogstashEncoder leanEncoder = lean("UTC");
+        long output = leanEncoder.encode(event).length + 16;
+        long reference = allocatedPerEvent(reference("UTC")::encode, event) - output;
+        long lean = allocatedPerEvent(leanEncoder::encode, event) - output;
+
+        assertTrue(lean * 4 < reference,
+                "garbage besides the result: lean " + lean + " bytes/event, LogstashEncoder " + reference);
+    }
+
+    private List<LoggingEvent> events() {
+        Random random = new Random(42);
+        List<LoggingEvent> events = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            LoggingEvent event = event(Level.INFO, "Order created successfully with id: {}, orderNumber: {}", null,
+                    v("order_id", (long) i), v("order_number", "ORD-" + i));
+            long epochSecond = random.nextLong(4_102_444_800L);
+            int nanos = switch (i % 4) {
+                case 0 -> 0;
+                case 1 -> random.nextInt(1000) * 1_000_000;
+                case 2 -> random.nextInt(1_000_000) * 1000;
+                default -> random.nextInt(1_000_000_000);
+            };
+            event.setInstant(Instant.ofEpochSecond(epochSecond, nanos));
+            events.add(event);
+        }
+        events.add(event(Level.WARN, "Quotes \" backslash \\ tab \t newline \n control \u0001\u001f slash </ é ✓ 😀  ",
+                null, kv("email", "a\"b@example.com")));
+        events.add(event(Level.DEBUG, "Types", null, v("amount", new BigDecimal("10.50")), v("active", true),
+                v("count", -7), v("missing", null), v("order_status", Order.OrderStatus.SHIPPED),
+                v("min", Long.MIN_VALUE), "not structured"));
+        events.add(event(Level.ERROR, "Failed for user {}", new IllegalStateException("boom"), v("user_id", 7L)));
+        events.add(event(Level.INFO, "Map argument", null, v("by_status", Map.of("PENDING", 2))));
+        events.add(event(Level.INFO, "Entries", null, entries(Map.of("a", 1))));
+        events.add(event(Level.INFO, "Double", null, v("ratio", 0.1)));
+        events.add(event(Level.INFO, "Unpaired \uD800 surrogate", null));
+        LoggingEvent marked = event(Level.INFO, "Marked", null);
+        marked.addMarker(MarkerFactory.getMarker("AUDIT"));
+        events.add(marked);
+        LoggingEvent withoutMdc = new LoggingEvent(getClass().getName(), logger, Level.TRACE, "No MDC", null, null);
+        withoutMdc.setMDCPropertyMap(Map.of());
+        events.add(withoutMdc);
+        return events;
+    }
+
+    private LoggingEvent event(Level level, String message, Throwable throwable, Object... arguments) {
+        LoggingEvent event = new LoggingEvent(getClass().getName(), logger, level, message, throwable, arguments);
+        Map<String, String> mdc = new LinkedHashMap<>();
+        mdc.put("request_id", "REQ-1760000000000-42");
+        mdc.put("http_route", "/api/orders/{id}");
+        event.setMDCPropertyMap(mdc);
+        event.setThreadName("http-nio-8080-exec-1");
+        return event;
+    }
+
+    private LogstashEncoder reference(String timeZone) {
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.setTimeZone(timeZone);
+        encoder.setCustomFields(CUSTOM_FIELDS);
+        encoder.start();
+        encoders.add(encoder::stop);
+        return encoder;
+    }
+
+    private LeanLogstashEncoder lean(String timeZone) {
+        LeanLogstashEncoder encoder = new LeanLogstashEncoder();
+        encoder.setContext(context);
+        encoder.setTimeZone(timeZone);
+        encoder.setCustomFields(CUSTOM_FIELDS);
+        encoder.start();
+        encoders.add(encoder::stop);
+        return encoder;
+    }
+
+    private static long allocatedPerEvent(Function<LoggingEvent, byte[]> encoder, LoggingEvent event) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 20_000; i++) {
+            encoder.apply(event);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 20_000; i++) {
+            encoder.apply(event);
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / 20_000;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogBackfillTest {
+
+    private static final String JSON_EVENT =
+            "{\"@timestamp\":\"2026-01-15T23:59:59.999Z\",\"level\":\"ERROR\",\"logger_name\":\"OrderService\",\"message\":\"%s\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesBulkFilesWithOriginalTimestampsAndStableIds() throws Exception {
+        archive("spring-json.log.2026-01-15.0.gz",
+                JSON_EVENT.formatted("first"),
+                "not json",
+                JSON_EVENT.formatted("second"),
+                JSON_EVENT.formatted("first"));
+        archive("spring.log.2026-01-16.0.gz",
+                "2026-01-16 08:00:00.000 [main] INFO  c.g.n.e.ElkStackPocApplication - Started",
+                "2026-01-16 08:00:01.000 [http-nio-8080-exec-1] ERROR c.g.n.e.c.OrderController - Failed",
+                "java.lang.IllegalStateException: boom",
+                "\tat com.example.Foo.bar(Foo.java:1)");
+        Path out = directory.resolve("out");
+
+        LogBackfill.Result result = new LogBackfill(LogBackfillOptions.parse("--dir", directory.toString(),
+                "--out", out.toString(), "--threads", "2", "--batch-size", "2", "--zone", "UTC")).run();
+
+        assertEquals(2, result.archives());
+        assertEquals(5, result.events());
+        assertEquals(1, result.skippedLines());
+
+        List<JsonNode> json = read(out.resolve("spring-json.log.2026-01-15.0.gz.bulk.ndjson"));
+        assertEquals(6, json.size());
+        JsonNode action = json.get(0).get("create");
+        assertEquals("elk-stack-poc-2026.01.15", action.get("_index").asText());
+        assertEquals("ERROR", json.get(1).get("log_level").asText());
+        assertTrue(json.get(1).path("level").isMissingNode());
+        assertEquals("true", json.get(1).get("is_error").asText());
+        assertEquals(action.get("_id"), json.get(4).get("create").get("_id"));
+        assertNotEquals(action.get("_id"), json.get(2).get("create").get("_id"));
+
+        List<JsonNode> plain = read(out.resolve("spring.log.2026-01-16.0.gz.bulk.ndjson"));
+        assertEquals(4, plain.size());
+        assertEquals("elk-stack-poc-2026.01.16", plain.get(2).get("create").get("_index").asText());
+        assertEquals("http-nio-8080-exec-1", plain.get(3).get("thread_name").asText());
+        assertEquals("2026-01-16T08:00:01Z", plain.get(3).get("@timestamp").asText());
+        assertTrue(plain.get(3).get("message").asText().startsWith("Failed\njava.lang.IllegalStateException: boom\n"));
+
+        LogBackfill.Result rerun = new LogBackfill(LogBackfillOptions.parse("--dir", directory.toString(),
+                "--out", out.toString())).run();
+        assertEquals(0, rerun.archives());
+    }
+
+    @Test
+    void postsToBulkEndpointAndCountsDuplicates() throws Exception {
+        archive("spring-json.log.2026-01-15.0.gz", JSON_EVENT.formatted("a"), JSON_EVENT.formatted("b"),
+                JSON_EVENT.formatted("a"));
+        Set<String> indexedIds = new HashSet<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/_bulk", exchange -> {
+            StringBuilder items = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(exchange.getRequestBody()), StandardCharsets.UTF_8))) {
+                List<String> lines = reader.lines().toList();
+                for (int i = 0; i < lines.size(); i += 2) {
+                    String id = objectMapper.readTree(lines.get(i)).get("create").get("_id").asText();
+                    items.append(items.isEmpty() ? "" : ",")
+                            .append("{\"create\":{\"status\":").append(indexedIds.add(id) ? 201 : 409).append("}}");
+                }
+            }
+            byte[] body = ("{\"errors\":true,\"items\":[" + items + "]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream response = exchange.getResponseBody()) {
+                response.write(body);
+            }
+        });
+        server.start();
+        try {
+            LogBackfill.Result result = new LogBackfill(LogBackfillOptions.parse("--dir", directory.toString(),
+                    "--es", "http://localhost:" + server.getAddress().getPort() + "/")).run();
+
+            assertEquals(2, result.events());
+            assertEquals(1, result.duplicates());
+            assertEquals(2, indexedIds.size());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private void archive(String name, String... lines) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(directory.resolve(name)))) {
+            out.write((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private List<JsonNode> read(Path file) throws IOException {
+        List<JsonNode> nodes = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            nodes.add(objectMapper.readTree(line));
+        }
+        return nodes;
+    }
+}
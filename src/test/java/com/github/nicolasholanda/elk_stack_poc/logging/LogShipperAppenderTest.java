@@ -0,0 +1,219 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.sun.net.httpserver.HttpServer;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogShipperAppenderTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final List<AutoCloseable> resources = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    Path spoolDirectory;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    void shipsBatchesOverTcpAsJsonLines() throws Exception {
+        int port = startTcpStub(0);
+        LogShipperAppender appender = shipper(LogShipperAppender.SinkType.TCP, "localhost:" + port);
+
+        for (int i = 0; i < 25; i++) {
+            appender.doAppend(event("tcp event " + i));
+        }
+
+        awaitTrue(() -> received.size() == 25);
+        appender.stop();
+        assertTrue(received.getFirst().contains("\"message\":\"tcp event 0\""));
+        assertEquals(25, appender.getShippedEvents());
+        assertTrue(appender.getSentBatches() >= 3);
+    }
+
+    @Test
+    void postsGzipBulkRequestsToElasticsearch() throws Exception {
+        String url = startBulkStub(() -> "{\"errors\":false,\"items\":[{\"index\":{\"status\":201}}]}");
+        LogShipperAppender appender = shipper(LogShipperAppender.SinkType.ELASTICSEARCH, url);
+
+        appender.doAppend(event("bulk event"));
+
+        awaitTrue(() -> received.size() == 2);
+        appender.stop();
+        assertTrue(received.get(0).startsWith("{\"index\":{\"_index\":\"elk-stack-poc-"));
+        assertTrue(received.get(1).contains("\"message\":\"bulk event\""));
+        // Enriched like the Logstash filter would
+        assertTrue(received.get(1).contains("\"log_level\":\"INFO\""));
+        assertTrue(received.get(1).contains("\"is_error\":\"false\""));
+        assertTrue(received.get(1).contains("\"application\":\"elk-stack-poc\""));
+        assertTrue(received.get(1).contains("\"tags\":[\"spring-boot\",\"elk-stack-poc\",\"shipped\"]"));
+        assertEquals(1, appender.getShippedEvents());
+    }
+
+    @Test
+    void countsBulkItemsElasticsearchRefusedAsDropped() throws Exception {
+        String url = startBulkStub(() -> "{\"errors\":true,\"items\":[{\"index\":{\"status\":201}},"
+                + "{\"index\":{\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\"}}}]}");
+        LogShipperAppender appender = shipper(LogShipperAppender.SinkType.ELASTICSEARCH, url);
+        appender.setBatchSize(2);
+
+        appender.doAppend(event("indexed event"));
+        appender.doAppend(event("refused event"));
+
+        awaitTrue(() -> appender.getSentBatches() == 1);
+        appender.stop();
+        assertEquals(1, appender.getShippedEvents());
+        assertEquals(1, appender.getDroppedEvents());
+        assertEquals(0, appender.getSpooledEvents());
+    }
+
+    @Test
+    void spoolsBatchesWithThrottledBulkItems() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        String url = startBulkStub(() -> requests.incrementAndGet() == 1
+                ? "{\"errors\":true,\"items\":[{\"index\":{\"status\":429,\"error\":{\"type\":\"es_rejected_execution_exception\"}}}]}"
+                : "{\"errors\":false,\"items\":[{\"index\":{\"status\":201}}]}");
+        LogShipperAppender appender = shipper(LogShipperAppender.SinkType.ELASTICSEARCH, url);
+
+        appender.doAppend(event("throttled event"));
+
+        awaitTrue(() -> appender.getShippedEvents() == 1);
+        appender.stop();
+        assertEquals(1, appender.getFailedBatches());
+        assertEquals(1, appender.getSpooledEvents());
+        assertEquals(0, appender.getDroppedEvents());
+        assertEquals(2, received.stream().filter(line -> line.contains("\"message\":\"throttled event\"")).count());
+    }
+
+    @Test
+    void spoolsWhileSinkIsDownAndReplaysInOrder() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        LogShipperAppender appender = shipper(LogShipperAppender.SinkType.TCP, "localhost:" + port);
+
+        for (int i = 0; i < 30; i++) {
+            appender.doAppend(event("spooled event " + i));
+        }
+        awaitTrue(() -> appender.getSpooledEvents() == 30);
+        assertTrue(appender.getSpoolBytes() > 0);
+
+        startTcpStub(port);
+        awaitTrue(() -> received.size() == 30);
+        appender.stop();
+
+        assertTrue(received.getFirst().contains("\"message\":\"spooled event 0\""));
+        assertTrue(received.getLast().contains("\"message\":\"spooled event 29\""));
+        assertEquals(0, appender.getSpoolBytes());
+        assertEquals(0, appender.getDroppedEvents());
+    }
+
+    private LogShipperAppender shipper(LogShipperAppender.SinkType sink, String destination) {
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        LogShipperAppender appender = new LogShipperAppender();
+        appender.setContext(context);
+        appender.setName("TEST_SHIPPER");
+        appender.setEncoder(encoder);
+        appender.setSink(sink);
+        appender.setDestination(destination);
+        appender.setBatchSize(10);
+        appender.setMaxBatchAgeMillis(50);
+        appender.setTimeoutMillis(500);
+        appender.setSpoolDirectory(spoolDirectory.toString());
+        appender.start();
+        resources.add(appender::stop);
+        return appender;
+    }
+
+    private String startBulkStub(Supplier<String> responseBody) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/_bulk", exchange -> {
+            assertEquals("gzip", exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(exchange.getRequestBody()), StandardCharsets.UTF_8))) {
+                reader.lines().forEach(received::add);
+            }
+            byte[] body = responseBody.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        resources.add(() -> server.stop(0));
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private int startTcpStub(int port) throws IOException {
+        ServerSocket server = new ServerSocket(port);
+        resources.add(server);
+        Thread.ofVirtual().start(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    resources.add(socket);
+                    Thread.ofVirtual().start(() -> readLines(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        return server.getLocalPort();
+    }
+
+    private void readLines(Socket socket) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                received.add(line);
+            }
+        } catch (IOException ignored) {
+            // stub connection closed
+        }
+    }
+
+    private LoggingEvent event(String message) {
+        return new LoggingEvent(getClass().getName(), context.getLogger("test"), Level.INFO, message, null, null);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10s");
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentLogIndexTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void findsEventsByIndexedFieldsNewestFirst() {
+        RecentLogIndex index = new RecentLogIndex(100, Long.MAX_VALUE);
+        add(index, 0, Level.INFO, "REQ-1", "7", null, "Fetching user");
+        add(index, 1, Level.INFO, "REQ-2", null, "42", "Creating order");
+        add(index, 2, Level.WARN, "REQ-1", "7", null, "User not found");
+        add(index, 3, Level.ERROR, "REQ-2", null, "42", "Order failed");
+
+        assertEquals(List.of(4L, 2L), sequences(index, query(null, "REQ-2", null, null, null, null)));
+        assertEquals(List.of(4L, 3L), sequences(index, query(Level.WARN, null, null, null, null, null)));
+        assertEquals(List.of(3L), sequences(index, query(Level.WARN, "REQ-1", "7", null, null, null)));
+        assertEquals(List.of(2L), sequences(index, query(null, null, null, "order", null, null)));
+        assertEquals(List.of(3L, 2L), sequences(index, query(null, null, null, null, T0.plusSeconds(1), T0.plusSeconds(3))));
+        assertEquals(List.of(), sequences(index, query(null, "REQ-3", null, null, null, null)));
+        assertEquals(List.of(), sequences(index, new RecentLogQuery(null, null, "REQ-1", null, null, "42", null, null, null, 100)));
+    }
+
+    @Test
+    void evictsOldestEventsAndTheirPostings() {
+        RecentLogIndex index = new RecentLogIndex(3, Long.MAX_VALUE);
+        for (int i = 0; i < 5; i++) {
+            add(index, i, Level.INFO, "REQ-" + i, "7", null, "event " + i);
+        }
+
+        assertEquals(3, index.size());
+        assertEquals(2, index.evicted());
+        assertEquals(List.of(), sequences(index, query(null, "REQ-1", null, null, null, null)));
+        assertEquals(List.of(5L, 4L, 3L), sequences(index, query(null, null, "7", null, null, null)));
+    }
+
+    @Test
+    void staysWithinTheByteCap() {
+        long cap = 64 * 1024;
+        RecentLogIndex index = new RecentLogIndex(100_000, cap);
+        String message = "x".repeat(500);
+        for (int i = 0; i < 10_000; i++) {
+            add(index, i, Level.INFO, "REQ-" + (i / 10), String.valueOf(i % 50), null, message);
+            assertTrue(index.estimatedBytes() <= cap);
+        }
+        long perEvent = RecentLogIndex.EVENT_OVERHEAD_BYTES + 500;
+        assertTrue(index.size() >= cap / perEvent - 2, "only " + index.size() + " events kept");
+        assertEquals(10_000, index.size() + index.evicted());
+    }
+
+    @Test
+    void looksUpRequestsInMicroseconds() {
+        RecentLogIndex index = new RecentLogIndex(50_000, Long.MAX_VALUE);
+        for (int i = 0; i < 50_000; i++) {
+            add(index, i, i % 100 == 0 ? Level.WARN : Level.INFO, "REQ-" + (i / 8), String.valueOf(i % 500), null, "event " + i);
+        }
+
+        int lookups = 200_000;
+        long found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            found += index.query(query(null, "REQ-" + (i % 6_250), null, null, null, null)).size();
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / lookups;
+
+        assertEquals(8L * lookups, found);
+        assertTrue(micros < 50, "request id lookup took " + micros + "us");
+    }
+
+    private static void add(RecentLogIndex index, int second, Level level, String requestId, String userId,
+                            String orderId, String message) {
+        index.add(T0.plusSeconds(second), level, "com.example.Service", "main", message, requestId,
+                "/api/users/{id}", userId, orderId, null);
+    }
+
+    private static RecentLogQuery query(Level level, String requestId, String userId, String text,
+                                        Instant from, Instant to) {
+        return new RecentLogQuery(level, null, requestId, null, userId, null, text, from, to, 100);
+    }
+
+    private static List<Long> sequences(RecentLogIndex index, RecentLogQuery query) {
+        return index.query(query).stream().map(RecentLogEvent::sequence).toList();
+    }
+}
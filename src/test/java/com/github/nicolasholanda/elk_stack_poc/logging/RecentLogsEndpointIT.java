@@ -0,0 +1,97 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nicolasholanda.elk_stack_poc.config.HttpLoggingInterceptor;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RecentLogsEndpointIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testFindsTheEventsOfARequest() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Alice\",\"email\":\"recent-logs@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String requestId = created.getResponse().getHeader(HttpLoggingInterceptor.REQUEST_ID_HEADER);
+        String userId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+        List<JsonNode> events = awaitEvents("requestId", requestId, 3);
+        for (JsonNode event : events) {
+            assertEquals(requestId, event.get("requestId").asText());
+            assertEquals("/api/users", event.get("route").asText());
+        }
+        assertTrue(events.stream().anyMatch(event -> event.get("message").asText().startsWith("User created successfully")
+                && userId.equals(event.get("userId").asText())));
+
+        List<JsonNode> byUser = awaitEvents("userId", userId, 1);
+        assertTrue(byUser.stream().allMatch(event -> userId.equals(event.get("userId").asText())));
+
+        mockMvc.perform(get("/api/users/{id}", 999_999))
+                .andExpect(status().isNotFound());
+        List<JsonNode> warnings = awaitEvents("level", "WARN", 1);
+        assertTrue(warnings.stream().allMatch(event -> List.of("WARN", "ERROR").contains(event.get("level").asText())));
+
+        mockMvc.perform(get("/actuator/recentlogs").param("level", "LOUD"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * The appender indexes on the async log writer thread, so events show up shortly after the request.
+     */
+    private List<JsonNode> awaitEvents(String filter, String value, int atLeast) throws Exception {
+        List<JsonNode> events = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (events.size() < atLeast && System.currentTimeMillis() < deadline) {
+            String body = mockMvc.perform(get("/actuator/recentlogs").param(filter, value))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.enabled").value(true))
+                    .andReturn().getResponse().getContentAsString();
+            events.clear();
+            objectMapper.readTree(body).get("events").forEach(events::add);
+            if (events.size() < atLeast) {
+                Thread.sleep(20);
+            }
+        }
+        assertTrue(events.size() >= atLeast, "expected " + atLeast + " events for " + filter + "=" + value);
+        return events;
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferAsyncAppenderTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    @Test
+    void flushesEveryBufferedEventOnStop() {
+        CollectingAppender target = new CollectingAppender(null);
+        RingBufferAsyncAppender appender = asyncAppender(target, OverflowPolicy.BLOCK, 16);
+
+        for (int i = 0; i < 10_000; i++) {
+            appender.doAppend(event(Level.INFO, "event " + i));
+        }
+        appender.stop();
+
+        assertEquals(10_000, target.events.size());
+        assertEquals("event 9999", target.events.get(9_999).getFormattedMessage());
+    }
+
+    @Test
+    void dropsInfoButNeverErrorWhenWriterIsStalled() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingAppender target = new CollectingAppender(release);
+        RingBufferAsyncAppender appender = asyncAppender(target, OverflowPolicy.DROP_DEBUG_INFO, 8);
+
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(event(Level.INFO, "info " + i));
+        }
+        Thread errors = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 20; i++) {
+                appender.doAppend(event(Level.ERROR, "error " + i));
+            }
+        });
+        TimeUnit.MILLISECONDS.sleep(50);
+        release.countDown();
+        errors.join();
+        appender.stop();
+
+        long errorCount = target.events.stream().filter(e -> e.getLevel() == Level.ERROR).count();
+        assertEquals(20, errorCount);
+        assertTrue(appender.getDroppedCount(Level.INFO) > 0);
+        assertEquals(0, appender.getDroppedCount(Level.ERROR));
+    }
+
+    private RingBufferAsyncAppender asyncAppender(CollectingAppender target, OverflowPolicy policy, int bufferSize) {
+        target.setContext(context);
+        target.start();
+        RingBufferAsyncAppender appender = new RingBufferAsyncAppender();
+        appender.setContext(context);
+        appender.setName("TEST_ASYNC");
+        appender.setBufferSize(bufferSize);
+        appender.setOverflowPolicy(policy);
+        appender.addAppender(target);
+        appender.start();
+        return appender;
+    }
+
+    private LoggingEvent event(Level level, String message) {
+        return new LoggingEvent(getClass().getName(), context.getLogger("test"), level, message, null, null);
+    }
+
+    private static class CollectingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        CollectingAppender(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteRollupTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final Logger rollupLogger = context.getLogger(RouteRollup.class);
+    private final ListAppender<ILoggingEvent> captured = new ListAppender<>();
+    private final LogstashEncoder encoder = new LogstashEncoder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RouteRollup rollup = new RouteRollup();
+
+    @BeforeEach
+    void setUp() {
+        encoder.setContext(context);
+        encoder.start();
+        captured.setContext(context);
+        captured.start();
+        rollupLogger.addAppender(captured);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupLogger.detachAppender(captured);
+        captured.stop();
+        encoder.stop();
+    }
+
+    @Test
+    void summarizesEachIntervalPerRoute() throws IOException {
+        for (int i = 1; i <= 100; i++) {
+            rollup.record("/api/orders/{id}", "GET", i <= 2 ? 500 : i <= 5 ? 404 : 200, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        rollup.record("/api/users", "POST", 201, TimeUnit.MILLISECONDS.toNanos(3));
+
+        rollup.flush();
+
+        assertEquals(2, captured.list.size());
+        JsonNode orders = rollupFor("/api/orders/{id}");
+        assertEquals("route_rollup", orders.get("log_type").asText());
+        assertEquals("GET", orders.get("http_method").asText());
+        assertEquals(100, orders.get("request_count").asLong());
+        assertEquals(2, orders.get("error_count").asLong());
+        assertEquals(3, orders.get("client_error_count").asLong());
+        assertEquals(50, orders.get("latency_avg_ms").asLong());
+        assertEquals(50, orders.get("latency_p50_ms").asLong());
+        assertEquals(100, orders.get("latency_p95_ms").asLong());
+        assertEquals(100, orders.get("latency_max_ms").asLong());
+    }
+
+    @Test
+    void reportsOnlyRequestsSinceLastFlush() throws IOException {
+        rollup.record("/api/orders", "GET", 200, TimeUnit.MILLISECONDS.toNanos(5));
+        rollup.flush();
+        captured.list.clear();
+
+        rollup.flush();
+        assertTrue(captured.list.isEmpty());
+
+        rollup.record("/api/orders", "GET", 503, TimeUnit.MILLISECONDS.toNanos(5));
+        rollup.flush();
+        JsonNode orders = rollupFor("/api/orders");
+        assertEquals(1, orders.get("request_count").asLong());
+        assertEquals(1, orders.get("error_count").asLong());
+    }
+
+    private JsonNode rollupFor(String route) throws IOException {
+        for (ILoggingEvent event : captured.list) {
+            JsonNode json = objectMapper.readTree(encoder.encode(event));
+            if (route.equals(json.get("http_route").asText())) {
+                return json;
+            }
+        }
+        throw new AssertionError("No rollup for " + route);
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final Logger serviceLogger = context.getLogger("com.example.service.OrderService");
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        serviceLogger.setLevel(Level.DEBUG);
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLoggers("com.example.service, com.example.controller");
+        filter.setUnsampledPerSecond(5);
+        filter.setSampleRate(0.25);
+        filter.start();
+        MDC.put(SamplingTurboFilter.MDC_ROUTE, "/api/orders/{id}");
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        serviceLogger.setLevel(null);
+    }
+
+    @Test
+    void keepsBurstThenOneInStride() {
+        int kept = 0;
+        for (int i = 0; i < 45; i++) {
+            if (decide(serviceLogger, Level.INFO) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        assertEquals(45 - filter.getSampledOutCount(), kept);
+        // 5 unsampled plus every 4th of the remaining 40, a few more if the second rolled over mid-loop
+        assertTrue(kept >= 15 && kept <= 20, "kept " + kept);
+    }
+
+    @Test
+    void neverSamplesWarnOrError() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(serviceLogger, Level.WARN));
+            assertEquals(FilterReply.NEUTRAL, decide(serviceLogger, Level.ERROR));
+        }
+        assertEquals(0, filter.getSampledOutCount());
+    }
+
+    @Test
+    void ignoresEventsOutsideRequestsAndOtherLoggers() {
+        Logger other = context.getLogger("com.example.repository.OrderRepository");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(other, Level.INFO));
+        }
+        MDC.remove(SamplingTurboFilter.MDC_ROUTE);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(serviceLogger, Level.INFO));
+        }
+        assertEquals(0, filter.getSampledOutCount());
+    }
+
+    @Test
+    void countsRoutesSeparately() {
+        for (int i = 0; i < 5; i++) {
+            decide(serviceLogger, Level.INFO);
+        }
+        MDC.put(SamplingTurboFilter.MDC_ROUTE, "/api/users/{id}");
+
+        assertEquals(FilterReply.NEUTRAL, decide(serviceLogger, Level.INFO));
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "Fetching order with id: {}", new Object[]{42L}, null);
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.nicolasholanda.elk_stack_poc.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that every kind of application log event carries its values as top-level JSON fields,
+ * exactly as the LogstashEncoder writes them, so the Logstash pipeline needs no grok.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StructuredLoggingIT {
+
+    private static final String APP_PACKAGE = "com.github.nicolasholanda.elk_stack_poc";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ListAppender<ILoggingEvent> captured = new ListAppender<>();
+    private final LogstashEncoder encoder = new LogstashEncoder();
+    private Logger appLogger;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        encoder.setContext(context);
+        encoder.start();
+        captured.setContext(context);
+        captured.start();
+        appLogger = context.getLogger(APP_PACKAGE);
+        appLogger.addAppender(captured);
+    }
+
+    @AfterEach
+    void tearDown() {
+        appLogger.detachAppender(captured);
+        captured.stop();
+        encoder.stop();
+    }
+
+    @Test
+    void httpAccessEventHasHttpFieldsAndRequestId() throws Exception {
+        String requestId = mockMvc.perform(get("/api/orders/{id}", 424242L))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getHeader("X-Request-Id");
+
+        JsonNode access = single("HTTP GET");
+        assertEquals("GET", access.get("http_method").asText());
+        assertEquals("/api/orders/424242", access.get("http_path").asText());
+        assertEquals("/api/orders/{id}", access.get("http_route").asText());
+        assertEquals(404, access.get("http_status").asInt());
+        assertTrue(access.get("http_status").isNumber());
+        assertTrue(access.get("response_time").isNumber());
+        assertEquals(requestId, access.get("request_id").asText());
+
+        JsonNode notFound = single("Order not found with id");
+        assertEquals(424242L, notFound.get("order_id").asLong());
+        assertEquals(requestId, notFound.get("request_id").asText());
+    }
+
+    @Test
+    void userAndOrderEventsHaveEntityFields() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Log User\",\"email\":\"log@example.com\"}"))
+                .andExpect(status().isCreated());
+        assertEquals("log@example.com", single("Creating new user").get("email").asText());
+        Long userId = single("User created successfully").get("user_id").asLong();
+
+        Order order = Order.builder()
+                .userId(userId)
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new BigDecimal("12.50"))
+                .build();
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isCreated());
+        assertEquals(userId, single("Received request to create order").get("user_id").asLong());
+        JsonNode created = single("Order created successfully");
+        long orderId = created.get("order_id").asLong();
+        assertTrue(created.get("order_number").asText().startsWith("ORD-"));
+
+        mockMvc.perform(put("/api/orders/{id}/status", orderId).param("status", "SHIPPED"))
+                .andExpect(status().isOk());
+        JsonNode updated = single("Order status updated successfully");
+        assertEquals(orderId, updated.get("order_id").asLong());
+        assertEquals("PENDING", updated.get("previous_status").asText());
+        assertEquals("SHIPPED", updated.get("order_status").asText());
+        assertTrue(updated.hasNonNull("request_id"));
+    }
+
+    private JsonNode single(String messagePrefix) throws IOException {
+        List<JsonNode> matches = new ArrayList<>();
+        for (ILoggingEvent event : captured.list) {
+            if (event.getFormattedMessage().startsWith(messagePrefix)) {
+                matches.add(objectMapper.readTree(new String(encoder.encode(event), StandardCharsets.UTF_8)));
+            }
+        }
+        assertEquals(1, matches.size(), "Expected one event starting with: " + messagePrefix);
+        return matches.getFirst();
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.nicolasholanda.elk_stack_poc.repository;
+
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every combination of search filters, in every sort order and with and without a cursor, has to read the
+ * orders through an index condition according to H2's {@code EXPLAIN}, not scan the table or walk a whole
+ * index in sort order.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-search-plans")
+class OrderSearchPlanIT {
+
+    private static final int FILTERS = 6;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final List<String> SORTS = List.of("createdAt", "createdAt,desc", "updatedAt", "updatedAt,desc",
+            "totalAmount", "totalAmount,desc");
+    private static final Pattern SCAN = Pattern.compile("/\\* (PUBLIC\\.[A-Z0-9_.]+)(: [^*]*)? \\*/");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        if (jdbcTemplate.queryForObject("select count(*) from orders", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.update("insert into users (id, name, email, created_at, updated_at)"
+                + " select x, 'User ' || x, 'user' || x || '@example.com', ?, ? from system_range(1, 200)", START, START);
+        jdbcTemplate.update("insert into orders (id, user_id, order_number, status, total_amount, description, created_at, updated_at)"
+                + " select x, mod(x, 200) + 1, 'ORD-' || x,"
+                + " array_get(array['PENDING', 'CONFIRMED', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED'], mod(x, 6) + 1),"
+                + " mod(x * 37, 10000) / 100.0, 'Order ' || x,"
+                + " timestamp '2025-01-01 00:00:00' + x * interval '1' minute,"
+                + " timestamp '2025-01-01 00:00:00' + (x + mod(x * 7, 1440)) * interval '1' minute"
+                + " from system_range(1, 20000)");
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void everyFilterCombinationReadsThroughAnIndex() {
+        List<String> failures = new ArrayList<>();
+        Order last = Order.builder().id(500L).createdAt(START.plusHours(8)).updatedAt(START.plusHours(9))
+                .totalAmount(new BigDecimal("15.00")).build();
+        for (int filters = 1; filters < 1 << FILTERS; filters++) {
+            OrderSearchCriteria criteria = criteria(filters);
+            for (String sort : SORTS) {
+                String cursor = OrderSearchQuery.of(criteria, sort, null, 101).cursorAfter(last);
+                for (String after : new String[]{null, cursor}) {
+                    OrderSearchQuery query = OrderSearchQuery.of(criteria, sort, after, 101);
+                    String plan = jdbcTemplate.queryForObject("explain " + query.sql(), String.class,
+                            query.parameters().toArray());
+                    Matcher scan = SCAN.matcher(plan);
+                    if (!scan.find() || scan.group(1).endsWith(".tableScan") || scan.group(2) == null) {
+                        failures.add(criteria + " sort " + sort + (after == null ? "" : " after cursor") + ":\n" + plan);
+                    }
+                }
+            }
+        }
+        assertTrue(failures.isEmpty(), failures.size() + " searches without an index condition:\n"
+                + String.join("\n\n", failures));
+    }
+
+    private static OrderSearchCriteria criteria(int filters) {
+        return new OrderSearchCriteria(
+                (filters & 1) != 0 ? 42L : null,
+                (filters & 2) != 0 ? Set.of(Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED) : null,
+                (filters & 4) != 0 ? new BigDecimal("10.00") : null,
+                (filters & 4) != 0 ? new BigDecimal("20.00") : null,
+                (filters & 8) != 0 ? START.plusHours(6) : null,
+                (filters & 8) != 0 ? START.plusHours(18) : null,
+                (filters & 16) != 0 ? START.plusHours(6) : null,
+                (filters & 16) != 0 ? START.plusHours(18) : null,
+                (filters & 32) != 0 ? "Order 12" : null);
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+import com.github.nicolasholanda.elk_stack_poc.config.OrderChangeProperties;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.OrderChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderChangeJournalTest {
+
+    @Test
+    void assignsSequencesInAppendOrder() throws InterruptedException {
+        OrderChangeJournal journal = journal(8, 10);
+        for (long id = 1; id <= 5; id++) {
+            journal.append(OrderChangeEvent.created(order(id, 1L)));
+        }
+
+        List<OrderChangeEvent> events = journal.read(2, Duration.ZERO);
+        assertEquals(List.of(3L, 4L, 5L), events.stream().map(OrderChangeEvent::sequence).toList());
+        assertEquals(List.of(3L, 4L, 5L), events.stream().map(OrderChangeEvent::orderId).toList());
+        assertTrue(journal.read(5, Duration.ofMillis(10)).isEmpty());
+    }
+
+    @Test
+    void reportsEventsThatLeftTheJournal() throws InterruptedException {
+        OrderChangeJournal journal = journal(4, 10);
+        for (long id = 1; id <= 10; id++) {
+            journal.append(OrderChangeEvent.created(order(id, 1L)));
+        }
+
+        assertNull(journal.read(5, Duration.ZERO));
+        assertEquals(4, journal.read(6, Duration.ZERO).size());
+        assertNull(journal.read(42, Duration.ZERO));
+    }
+
+    @Test
+    void streamsNewEventsToSubscribersOfTheUser() throws InterruptedException {
+        OrderChangeJournal journal = journal(16, 10);
+        RecordingSink sink = new RecordingSink();
+        journal.subscribe(null, 7L, sink);
+
+        journal.append(OrderChangeEvent.created(order(1L, 7L)));
+        journal.append(OrderChangeEvent.created(order(2L, 8L)));
+        journal.append(OrderChangeEvent.deleted(order(1L, 7L)));
+
+        OrderChangeEvent created = sink.events.poll(5, TimeUnit.SECONDS);
+        OrderChangeEvent deleted = sink.events.poll(5, TimeUnit.SECONDS);
+        assertEquals(OrderChangeEvent.Type.CREATED, created.type());
+        assertEquals(1, created.sequence());
+        assertEquals(OrderChangeEvent.Type.DELETED, deleted.type());
+        assertEquals(3, deleted.sequence());
+        assertEquals(Order.OrderStatus.PENDING, deleted.previousStatus());
+    }
+
+    @Test
+    void evictsSubscribersThatFellAJournalBehind() throws InterruptedException {
+        OrderChangeJournal journal = journal(4, 10);
+        for (long id = 1; id <= 10; id++) {
+            journal.append(OrderChangeEvent.created(order(id, 1L)));
+        }
+        RecordingSink sink = new RecordingSink();
+        journal.subscribe(2L, null, sink);
+
+        OrderChangeEvent reset = sink.events.poll(5, TimeUnit.SECONDS);
+        assertEquals(OrderChangeEvent.Type.RESET, reset.type());
+        assertEquals(10, reset.sequence());
+        assertTrue(sink.closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void limitsConcurrentSubscribers() throws InterruptedException {
+        OrderChangeJournal journal = journal(4, 1);
+        RecordingSink first = new RecordingSink();
+        journal.subscribe(null, null, first);
+
+        assertThrows(IllegalStateException.class, () -> journal.subscribe(null, null, new RecordingSink()));
+
+        first.failing = true;
+        journal.append(OrderChangeEvent.created(order(1L, 1L)));
+        assertTrue(first.closed.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (journal.subscribers() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        journal.subscribe(null, null, new RecordingSink());
+    }
+
+    @Test
+    void sendsHeartbeatsWhileOnlyOtherUsersChange() throws InterruptedException {
+        OrderChangeJournal journal = journal(16, 10);
+        RecordingSink sink = new RecordingSink();
+        journal.subscribe(null, 7L, sink);
+        sink.failing = true;
+
+        // A heartbeat to the dead client ends the stream although no event of user 7 ever arrives
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (long id = 1; sink.closed.getCount() > 0 && System.nanoTime() < deadline; id++) {
+            journal.append(OrderChangeEvent.created(order(id, 8L)));
+            Thread.sleep(20);
+        }
+        assertTrue(sink.closed.await(0, TimeUnit.SECONDS));
+        assertTrue(sink.events.isEmpty());
+    }
+
+    private static OrderChangeJournal journal(int size, int maxSubscribers) {
+        return new OrderChangeJournal(new OrderChangeProperties(size, maxSubscribers, Duration.ofSeconds(1)));
+    }
+
+    private static Order order(Long id, Long userId) {
+        return Order.builder()
+                .id(id)
+                .userId(userId)
+                .orderNumber("ORD-" + id)
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(BigDecimal.TEN)
+                .version(0L)
+                .build();
+    }
+
+    private static class RecordingSink implements OrderChangeJournal.ChangeSink {
+
+        final BlockingQueue<OrderChangeEvent> events = new LinkedBlockingQueue<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile boolean failing;
+
+        @Override
+        public void send(OrderChangeEvent event) throws IOException {
+            if (failing) {
+                throw new IOException("client went away");
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            if (failing) {
+                throw new IOException("client went away");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+import com.github.nicolasholanda.elk_stack_poc.model.BatchResult;
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares rows/sec of the one-by-one {@link OrderService#createOrder} path against
+ * the chunked, JDBC-batched {@link OrderService#createOrders} path.
+ */
+@SpringBootTest(properties = "logging.level.com.github.nicolasholanda.elk_stack_poc=WARN")
+class OrderIngestionBenchmarkIT {
+
+    // Results are not warnings; this logger is outside the application package quieted down to WARN above
+    private static final Logger results = LoggerFactory.getLogger("benchmark." + OrderIngestionBenchmarkIT.class.getSimpleName());
+
+    private static final int ROWS = 5_000;
+    private static final int WARMUP_ROWS = 500;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        userId = userRepository.save(User.builder()
+                .name("Benchmark User")
+                .email("benchmark@example.com")
+                .build()).getId();
+    }
+
+    @Test
+    void compareOneByOneAndBatchedIngestion() {
+        insertOneByOne(WARMUP_ROWS);
+        orderService.createOrders(newOrders(WARMUP_ROWS));
+
+        long start = System.nanoTime();
+        insertOneByOne(ROWS);
+        double oneByOne = rowsPerSecond(ROWS, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        BatchResult result = orderService.createOrders(newOrders(ROWS));
+        double batched = rowsPerSecond(ROWS, System.nanoTime() - start);
+
+        assertEquals(ROWS, result.created());
+        results.info("Order ingestion of {} rows: one-by-one {} rows/s, batched {} rows/s ({}x)",
+                ROWS, Math.round(oneByOne), Math.round(batched), String.format("%.1f", batched / oneByOne));
+    }
+
+    private void insertOneByOne(int rows) {
+        newOrders(rows).forEach(orderService::createOrder);
+    }
+
+    private List<Order> newOrders(int rows) {
+        List<Order> orders = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            orders.add(Order.builder()
+                    .userId(userId)
+                    .status(Order.OrderStatus.PENDING)
+                    .totalAmount(new BigDecimal("19.90"))
+                    .description("Benchmark order " + i)
+                    .build());
+        }
+        return orders;
+    }
+
+    private static double rowsPerSecond(int rows, long elapsedNanos) {
+        return rows / (elapsedNanos / 1_000_000_000.0);
+    }
+}
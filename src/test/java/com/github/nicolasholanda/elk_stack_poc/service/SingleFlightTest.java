@@ -0,0 +1,142 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", true, Duration.ofSeconds(10));
+        Future<String> leader = executor.submit(() -> flight.execute(1L, blockingLoad("orders of 1")));
+        awaitLoads(1);
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            waiters.add(executor.submit(() -> flight.execute(1L, blockingLoad("unexpected"))));
+        }
+        String other = flight.execute(2L, () -> "orders of 2");
+        awaitWaiting(flight, 20);
+
+        release.countDown();
+        assertEquals("orders of 1", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> waiter : waiters) {
+            assertEquals("orders of 1", waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals("orders of 2", other);
+        assertEquals(1, loads.get());
+        assertEquals(2, flight.getExecuted());
+        assertEquals(20, flight.getCoalesced());
+    }
+
+    @Test
+    void callersAfterAWriteDoNotJoinTheSupersededLoad() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", true, Duration.ofSeconds(10));
+        List<String> published = new ArrayList<>();
+        Future<String> stale = executor.submit(() -> flight.execute(1L, blockingLoad("before write"), published::add));
+        awaitLoads(1);
+
+        flight.forget(1L);
+        String fresh = flight.execute(1L, () -> "after write", published::add);
+        release.countDown();
+
+        assertEquals("after write", fresh);
+        assertEquals("before write", stale.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("after write"), published);
+        assertEquals(2, flight.getExecuted());
+        assertEquals(0, flight.getCoalesced());
+    }
+
+    @Test
+    void waiterLoadsByItselfAfterTheTimeout() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", true, Duration.ofMillis(50));
+        executor.submit(() -> flight.execute(1L, blockingLoad("slow")));
+        awaitLoads(1);
+
+        assertEquals("own", flight.execute(1L, () -> "own"));
+        assertEquals(1, flight.getTimedOut());
+        assertEquals(2, flight.getExecuted());
+    }
+
+    @Test
+    void waitersGetTheLoadersException() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", true, Duration.ofSeconds(10));
+        Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+            blockingLoad("unused").get();
+            throw new IllegalStateException("connection refused");
+        }));
+        awaitLoads(1);
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(() -> flight.execute(1L, () -> "unexpected"), executor);
+        awaitWaiting(flight, 1);
+        release.countDown();
+
+        assertTrue(assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause() instanceof IllegalStateException);
+        assertEquals("connection refused",
+                assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS)).getCause().getMessage());
+        assertEquals(1, flight.getExecuted());
+    }
+
+    private Supplier<String> blockingLoad(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        };
+    }
+
+    private void awaitLoads(int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && loads.get() < expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, loads.get());
+    }
+
+    /**
+     * Waits until {@code waiters} threads of the executor are parked on the flight's future.
+     */
+    private void awaitWaiting(SingleFlight<?, ?> flight, int waiters) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            long parked = Thread.getAllStackTraces().entrySet().stream()
+                    .filter(entry -> entry.getKey().getState() == Thread.State.TIMED_WAITING)
+                    .filter(entry -> Arrays.stream(entry.getValue())
+                            .anyMatch(frame -> frame.getMethodName().equals("await")
+                                    && frame.getClassName().equals(SingleFlight.class.getName())))
+                    .count();
+            if (parked >= waiters) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Callers of " + flight.getName() + " did not start waiting");
+    }
+}
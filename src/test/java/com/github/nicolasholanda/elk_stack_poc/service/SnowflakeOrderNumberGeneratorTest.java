@@ -0,0 +1,143 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeOrderNumberGeneratorTest {
+
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void generatesNoCollisionsAcrossThreads() throws InterruptedException {
+        int threads = 8;
+        int perThread = 500_000;
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(7, EPOCH, Clock.systemUTC());
+        long[][] generated = new long[threads][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[] ids = generated[t];
+            workers.add(Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.nextId();
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long[] all = Arrays.stream(generated).flatMapToLong(Arrays::stream).sorted().toArray();
+        assertEquals(threads * perThread, all.length);
+        for (int i = 1; i < all.length; i++) {
+            assertNotEquals(all[i - 1], all[i], "Duplicate id " + all[i]);
+        }
+        for (long[] ids : generated) {
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(ids[i] > ids[i - 1], "Ids of one thread must increase");
+            }
+        }
+    }
+
+    @Test
+    void staysMonotonicWhenClockStepsBack() {
+        MutableClock clock = new MutableClock(EPOCH.toEpochMilli() + 60_000);
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(1, EPOCH, clock);
+
+        long beforeRollback = generator.nextId();
+        clock.millis.addAndGet(-10_000);
+        long afterRollback = generator.nextId();
+        clock.millis.addAndGet(20_000);
+        long afterRecovery = generator.nextId();
+
+        assertTrue(afterRollback > beforeRollback);
+        assertTrue(afterRecovery > afterRollback);
+        assertEquals(70_000, afterRecovery >>> (SnowflakeOrderNumberGenerator.NODE_BITS + SnowflakeOrderNumberGenerator.SEQUENCE_BITS));
+    }
+
+    @Test
+    void borrowsNextMillisecondWhenSequenceIsExhausted() {
+        MutableClock clock = new MutableClock(EPOCH.toEpochMilli() + 1_000);
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(1, EPOCH, clock);
+
+        long previous = generator.nextId();
+        for (int i = 1; i < 3 * (1 << SnowflakeOrderNumberGenerator.SEQUENCE_BITS); i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertEquals(1_002, previous >>> (SnowflakeOrderNumberGenerator.NODE_BITS + SnowflakeOrderNumberGenerator.SEQUENCE_BITS));
+    }
+
+    @Test
+    void formatsAsFixedWidthOrderNumber() {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(3, EPOCH, Clock.systemUTC());
+
+        String first = generator.next();
+        String second = generator.next();
+
+        assertTrue(first.matches("ORD-[A-F0-9]{16}"), first);
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals("ORD-0000000000400001", SnowflakeOrderNumberGenerator.format(1L << 22 | 1));
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderNumberGenerator(1024, EPOCH, Clock.systemUTC()));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderNumberGenerator(-1, EPOCH, Clock.systemUTC()));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private final AtomicLong millis;
+
+        private MutableClock(long millis) {
+            this.millis = new AtomicLong(millis);
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
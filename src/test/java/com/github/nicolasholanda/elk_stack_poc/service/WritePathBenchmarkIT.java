@@ -0,0 +1,143 @@
+package com.github.nicolasholanda.elk_stack_poc.service;
+
+import com.github.nicolasholanda.elk_stack_poc.model.Order;
+import com.github.nicolasholanda.elk_stack_poc.model.User;
+import com.github.nicolasholanda.elk_stack_poc.repository.OrderRepository;
+import com.github.nicolasholanda.elk_stack_poc.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares JDBC statements per operation and latency of the former read-modify-write update and
+ * exists-then-delete paths against the single conditional statements {@link OrderService} now issues,
+ * for orders in the entity cache and for orders that are not.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.github.nicolasholanda.elk_stack_poc=WARN",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+class WritePathBenchmarkIT {
+
+    private static final Logger results = LoggerFactory.getLogger("benchmark." + WritePathBenchmarkIT.class.getSimpleName());
+
+    private static final int ORDERS = 2_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+        userId = userRepository.save(User.builder()
+                .name("Benchmark User")
+                .email("write-benchmark@example.com")
+                .build()).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void compareReadModifyWriteAndSingleStatementPaths() {
+        run("warmup", newOrders(false), this::legacyUpdateStatus);
+        run("warmup", newOrders(false), id -> orderService.updateOrderStatus(id, Order.OrderStatus.SHIPPED));
+
+        Result legacyUpdate = run("update, find+save", newOrders(false), this::legacyUpdateStatus);
+        Result update = run("update, conditional, cached", newOrders(true), id -> orderService.updateOrderStatus(id, Order.OrderStatus.SHIPPED));
+        Result coldUpdate = run("update, conditional, not cached", newOrders(false), id -> orderService.updateOrderStatus(id, Order.OrderStatus.SHIPPED));
+        Result legacyDelete = run("delete, exists+delete", newOrders(false), this::legacyDelete);
+        Result delete = run("delete, single statement, cached", newOrders(true), orderService::deleteOrder);
+        Result coldDelete = run("delete, single statement, not cached", newOrders(false), orderService::deleteOrder);
+
+        results.info("Order write paths over {} orders:", ORDERS);
+        for (Result result : List.of(legacyUpdate, update, coldUpdate, legacyDelete, delete, coldDelete)) {
+            results.info("  {}: {} statements/op, {} ops/s, avg {}us", result.name(),
+                    String.format("%.2f", result.statementsPerOp()), Math.round(result.opsPerSecond()), result.avgMicros());
+        }
+
+        assertEquals(1.0, update.statementsPerOp(), 0.01);
+        assertEquals(1.0, coldUpdate.statementsPerOp(), 0.01);
+        assertEquals(1.0, delete.statementsPerOp(), 0.01);
+        assertEquals(1.0, coldDelete.statementsPerOp(), 0.01);
+        assertTrue(legacyUpdate.statementsPerOp() >= 2);
+        assertTrue(legacyDelete.statementsPerOp() >= 2);
+        assertEquals(0, orderRepository.count());
+    }
+
+    private Result run(String name, List<Long> ids, Consumer<Long> operation) {
+        statistics.clear();
+        long start = System.nanoTime();
+        ids.forEach(operation);
+        long elapsed = System.nanoTime() - start;
+        return new Result(name, statistics.getPrepareStatementCount() / (double) ids.size(),
+                ids.size() / (elapsed / 1_000_000_000.0), elapsed / ids.size() / 1_000);
+    }
+
+    private void legacyUpdateStatus(Long id) {
+        Order order = orderRepository.findById(id).orElseThrow();
+        order.setStatus(Order.OrderStatus.SHIPPED);
+        order.setUpdatedAt(LocalDateTime.now());
+        orderRepository.save(order);
+    }
+
+    private void legacyDelete(Long id) {
+        if (orderRepository.existsById(id)) {
+            orderRepository.deleteById(id);
+        }
+    }
+
+    /**
+     * Creates the orders through the service, which caches them just like orders that were recently
+     * created or read through the API. Unless {@code cached}, the caches are cleared afterwards.
+     */
+    private List<Long> newOrders(boolean cached) {
+        orderRepository.deleteAll();
+        List<Long> ids = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            ids.add(orderService.createOrder(Order.builder()
+                    .userId(userId)
+                    .status(Order.OrderStatus.PENDING)
+                    .totalAmount(new BigDecimal("19.90"))
+                    .description("Benchmark order " + i)
+                    .build()).getId());
+        }
+        if (!cached) {
+            cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        }
+        return ids;
+    }
+
+    private record Result(String name, double statementsPerOp, double opsPerSecond, long avgMicros) {
+    }
+}
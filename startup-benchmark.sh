@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Time to first request and resident memory for each startup mode.
+# Build first: ./mvnw -Pfast-start package -DskipTests
+# Usage: ./startup-benchmark.sh [runs per mode, default 3]
+set -euo pipefail
+
+RUNS=${1:-3}
+PORT=${PORT:-8080}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAR=elk-stack-poc-0.0.1-SNAPSHOT.jar
+ROOT=$(cd "$(dirname "$0")" && pwd)
+FAST_START=$ROOT/target/fast-start
+
+if [[ ! -f $FAST_START/application.jsa ]]; then
+  echo "Missing $FAST_START/application.jsa, run ./mvnw -Pfast-start package -DskipTests first" >&2
+  exit 1
+fi
+
+declare -A COMMANDS=(
+  [default]="$JAVA -jar $ROOT/target/$JAR"
+  [lazy]="$JAVA -Dspring.profiles.active=fast-start -jar $FAST_START/$JAR"
+  [aot-cds]="$JAVA -XX:SharedArchiveFile=application.jsa -Xlog:cds=off -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start -jar $FAST_START/$JAR"
+)
+
+# Prints "<ms to first successful GET /api/users> <RSS in MB after it>"
+measure() {
+  local start pid rss
+  start=$(date +%s%N)
+  (cd "$FAST_START" && exec $1 --server.port="$PORT" > /dev/null 2>&1) &
+  pid=$!
+  until curl -sf -o /dev/null "http://localhost:$PORT/api/users?limit=1"; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "Application exited before serving a request" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  local elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  rss=$(awk '/VmRSS/ { print int($2 / 1024) }' "/proc/$pid/status")
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  echo "$elapsed $rss"
+}
+
+printf "%-8s %22s %14s\n" mode "first request (ms)" "RSS (MB)"
+for mode in default lazy aot-cds; do
+  total_ms=0
+  total_rss=0
+  for ((i = 0; i < RUNS; i++)); do
+    read -r ms rss < <(measure "${COMMANDS[$mode]}")
+    total_ms=$((total_ms + ms))
+    total_rss=$((total_rss + rss))
+  done
+  printf "%-8s %22d %14d\n" "$mode" $((total_ms / RUNS)) $((total_rss / RUNS))
+done